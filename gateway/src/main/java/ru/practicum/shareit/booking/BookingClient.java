@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -11,6 +12,7 @@ import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.io.IOException;
 import java.util.Map;
 
 @Service
@@ -27,7 +29,15 @@ public class BookingClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, int from, int size) {
+    public ResponseEntity<Object> getBookings(long userId, BookingState state, int from, int size, String after) {
+        if (after != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "size", size,
+                    "after", after
+            );
+            return get("?state={state}&size={size}&after={after}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -46,7 +56,15 @@ public class BookingClient extends BaseClient {
     }
 
     // Отсюда и ниже - добавление
-    public ResponseEntity<Object> getAllOwner(long ownerId, BookingState state, int from, int size) {
+    public ResponseEntity<Object> getAllOwner(long ownerId, BookingState state, int from, int size, String after) {
+        if (after != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "size", size,
+                    "after", after
+            );
+            return get("/owner?state={state}&size={size}&after={after}", ownerId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -56,6 +74,14 @@ public class BookingClient extends BaseClient {
         return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
     }
 
+    public void streamBookings(long userId, BookingState state, HttpServletResponse response) throws IOException {
+        stream("?state={state}", userId, Map.of("state", state.name()), response);
+    }
+
+    public void streamAllOwner(long ownerId, BookingState state, HttpServletResponse response) throws IOException {
+        stream("/owner?state={state}", ownerId, Map.of("state", state.name()), response);
+    }
+
     public ResponseEntity<Object> update(long userId, long bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
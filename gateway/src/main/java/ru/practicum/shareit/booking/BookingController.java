@@ -1,11 +1,13 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -13,6 +15,8 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import java.io.IOException;
+
 @Controller
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
@@ -25,10 +29,11 @@ public class BookingController {
     public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
                                               @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") int from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") int size) {
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") int size,
+                                              @RequestParam(name = "after", required = false) String after) {
         BookingState state = BookingState.from(stateParam).orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("GET-запрос в контроллере Booking на получение бронирований от других пользователей с параметрами: state={}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("GET-запрос в контроллере Booking на получение бронирований от других пользователей с параметрами: state={}, userId={}, from={}, size={}, after={}", stateParam, userId, from, size, after);
+        return bookingClient.getBookings(userId, state, from, size, after);
     }
 
     @PostMapping
@@ -49,11 +54,32 @@ public class BookingController {
     public ResponseEntity<Object> getAllOwner(@RequestHeader("X-Sharer-User-Id") @Positive Long ownerId,
                                               @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
                                               @RequestParam(value = "from", defaultValue = "0") @Min(0) int from,
-                                              @RequestParam(value = "size", defaultValue = "10") @Min(1) int size) {
+                                              @RequestParam(value = "size", defaultValue = "10") @Min(1) int size,
+                                              @RequestParam(value = "after", required = false) String after) {
+        BookingState state = BookingState.from(bookingState)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + bookingState));
+        log.info("GET-запрос в контроллере Booking на получение списка всех бронирований пользователя c параметрами: state={}, userId={}, from={}, size={}, after={}", bookingState, ownerId, from, size, after);
+        return bookingClient.getAllOwner(ownerId, state, from, size, after);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamBookings(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                               @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+                               HttpServletResponse response) throws IOException {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("GET-запрос в контроллере Booking на выгрузку бронирований с параметрами: state={}, userId={}", stateParam, userId);
+        bookingClient.streamBookings(userId, state, response);
+    }
+
+    @GetMapping(value = "/owner", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAllOwner(@RequestHeader("X-Sharer-User-Id") @Positive Long ownerId,
+                               @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
+                               HttpServletResponse response) throws IOException {
         BookingState state = BookingState.from(bookingState)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + bookingState));
-        log.info("GET-запрос в контроллере Booking на получение списка всех бронирований пользователя c параметрами: state={}, userId={}, from={}, size={}", bookingState, ownerId, from, size);
-        return bookingClient.getAllOwner(ownerId, state, from, size);
+        log.info("GET-запрос в контроллере Booking на выгрузку бронирований владельца c параметрами: state={}, userId={}", bookingState, ownerId);
+        bookingClient.streamAllOwner(ownerId, state, response);
     }
 
     @PatchMapping("/{bookingId}")
@@ -1,10 +1,14 @@
 package ru.practicum.shareit.client;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -75,6 +79,39 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    // Передаёт ответ сервера в NDJSON клиенту по мере получения, не накапливая его в памяти
+    protected void stream(String path, Long userId, Map<String, Object> parameters,
+                          HttpServletResponse response) throws IOException {
+        try {
+            rest.execute(path, HttpMethod.GET, request -> {
+                request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON));
+                if (userId != null) {
+                    request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                }
+            }, serverResponse -> {
+                response.setStatus(serverResponse.getStatusCode().value());
+                response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+                copy(serverResponse.getBody(), response.getOutputStream());
+                return null;
+            }, parameters);
+        } catch (HttpStatusCodeException e) {
+            response.setStatus(e.getStatusCode().value());
+            if (e.getResponseHeaders() != null && e.getResponseHeaders().getContentType() != null) {
+                response.setContentType(e.getResponseHeaders().getContentType().toString());
+            }
+            response.getOutputStream().write(e.getResponseBodyAsByteArray());
+        }
+    }
+
+    private static void copy(InputStream input, OutputStream output) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) >= 0) {
+            output.write(buffer, 0, read);
+            output.flush();
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
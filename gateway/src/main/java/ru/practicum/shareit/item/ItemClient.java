@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -11,6 +12,8 @@ import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Map;
 
@@ -48,22 +51,73 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> searchItems(Long userId, String text, Integer from, Integer size) {
-        if (text.isBlank()) {
+    // С фасетами ответ - объект, поэтому пустой запрос тоже передаётся серверу
+    public ResponseEntity<Object> searchItems(Long userId, String text, String sort, Boolean fuzzy, Integer from,
+                                              Integer size, Boolean facets) {
+        if (text.isBlank() && !facets) {
             return ResponseEntity.ok(Collections.emptyList());
         }
 
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size,
-                "text", text
+                "text", text,
+                "sort", sort,
+                "fuzzy", fuzzy,
+                "facets", facets
         );
 
-        return get("/search?from={from}&size={size}&text={text}", userId, parameters);
+        return get("/search?from={from}&size={size}&text={text}&sort={sort}&fuzzy={fuzzy}&facets={facets}", userId,
+                parameters);
+    }
+
+    public void streamSearchItems(Long userId, String text, String sort, Boolean fuzzy,
+                                  HttpServletResponse response) throws IOException {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "sort", sort,
+                "fuzzy", fuzzy
+        );
+
+        stream("/search?text={text}&sort={sort}&fuzzy={fuzzy}", userId, parameters, response);
+    }
+
+    public ResponseEntity<Object> suggest(Long userId, String prefix, Integer size) {
+        if (prefix.isBlank()) {
+            return ResponseEntity.ok(Collections.emptyList());
+        }
+
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
+        );
+
+        return get("/suggest?prefix={prefix}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> availability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to,
+                                               Boolean includeWaiting) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to,
+                "includeWaiting", includeWaiting
+        );
+
+        return get("/" + itemId + "/availability?from={from}&to={to}&includeWaiting={includeWaiting}", userId,
+                parameters);
     }
 
     public ResponseEntity<Object> createComment(Long userId, CommentDto commentDto, Long itemId) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 
+    public ResponseEntity<Object> getComments(Long userId, Long itemId, String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size
+        );
+
+        return get("/" + itemId + "/comments?after={after}&size={size}", userId, parameters);
+    }
+
 }
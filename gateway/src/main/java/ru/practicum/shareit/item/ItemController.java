@@ -1,16 +1,24 @@
 package ru.practicum.shareit.item;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
@@ -53,10 +61,49 @@ public class ItemController {
     @GetMapping("/search")
     public ResponseEntity<Object> searchItems(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
                                               @RequestParam(name = "text") String text,
+                                              @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                              @RequestParam(value = "fuzzy", defaultValue = "false") Boolean fuzzy,
                                               @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-                                              @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size) {
-        log.info("GET запрос в контроллере Item на поиск всех вещей c текстом: {}", text);
-        return itemClient.searchItems(userId, text, from, size);
+                                              @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size,
+                                              @RequestParam(value = "facets", defaultValue = "false") Boolean facets) {
+        log.info("GET запрос в контроллере Item на поиск всех вещей c текстом: {}, сортировка: {}, с опечатками: {}, " +
+                "с фасетами: {}", text, sort, fuzzy, facets);
+        return itemClient.searchItems(userId, text, sort, fuzzy, from, size, facets);
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamSearchItems(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                  @RequestParam(name = "text") String text,
+                                  @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                  @RequestParam(value = "fuzzy", defaultValue = "false") Boolean fuzzy,
+                                  HttpServletResponse response) throws IOException {
+        log.info("GET запрос в контроллере Item на выгрузку всех вещей c текстом: {}, сортировка: {}", text, sort);
+        itemClient.streamSearchItems(userId, text, sort, fuzzy, response);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggest(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                          @RequestParam(name = "prefix") String prefix,
+                                          @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(10) Integer size) {
+        log.info("GET запрос в контроллере Item на получение подсказок для префикса: {}", prefix);
+        return itemClient.suggest(userId, prefix, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> availability(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                               @PathVariable("itemId") @Positive Long itemId,
+                                               @RequestParam(name = "from")
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(name = "to")
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                               @RequestParam(value = "includeWaiting", defaultValue = "false")
+                                               Boolean includeWaiting) {
+        log.info("GET запрос в контроллере Item на получение свободных периодов вещи c id: {} c {} по {}",
+                itemId, from, to);
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
+        }
+        return itemClient.availability(userId, itemId, from, to, includeWaiting);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -66,4 +113,13 @@ public class ItemController {
         log.info("POST запрос в контроллере Item на создание комментария {} для вещи {} от пользователя: {}", commentDto, itemId, userId);
         return itemClient.createComment(userId, commentDto, itemId);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                              @PathVariable("itemId") @Positive Long itemId,
+                                              @RequestParam(value = "after", defaultValue = "") String after,
+                                              @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(100) Integer size) {
+        log.info("GET запрос в контроллере Item на получение комментариев вещи {} после {}, size={}", itemId, after, size);
+        return itemClient.getComments(userId, itemId, after, size);
+    }
 }
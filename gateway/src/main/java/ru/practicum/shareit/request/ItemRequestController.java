@@ -36,9 +36,17 @@ public class ItemRequestController {
     @GetMapping("/all")
     public ResponseEntity<Object> getAllRequests(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
                                                  @RequestParam(name = "from", defaultValue = "0") @Min(0) Integer from,
-                                                 @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size) {
-        log.info("GET-запрос в контроллере Request на получение запроса от пользователя {} с параметрами: from={}, size={}", userId, from, size);
-        return requestClient.getAllRequests(userId, from, size);
+                                                 @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size,
+                                                 @RequestParam(value = "after", required = false) String after) {
+        log.info("GET-запрос в контроллере Request на получение запроса от пользователя {} с параметрами: from={}, size={}, after={}", userId, from, size, after);
+        return requestClient.getAllRequests(userId, from, size, after);
+    }
+
+    @GetMapping("/feed")
+    public ResponseEntity<Object> getFeed(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                          @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size) {
+        log.info("GET-запрос в контроллере Request на получение ленты запросов от пользователя {} с параметром size={}", userId, size);
+        return requestClient.getFeed(userId, size);
     }
 
     @GetMapping("/{requestId}")
@@ -47,4 +55,11 @@ public class ItemRequestController {
         log.info("GET-запрос в контроллере Request на получение запроса {} от пользователя {}", requestId, userId);
         return requestClient.getRequestById(userId, requestId);
     }
+
+    @GetMapping("/{requestId}/matches")
+    public ResponseEntity<Object> getMatches(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                             @PathVariable("requestId") @Positive Long requestId) {
+        log.info("GET-запрос в контроллере Request на получение вещей, подобранных к запросу {}, от пользователя {}", requestId, userId);
+        return requestClient.getMatches(userId, requestId);
+    }
 }
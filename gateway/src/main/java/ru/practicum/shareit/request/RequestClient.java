@@ -36,7 +36,14 @@ public class RequestClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllRequests(Long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllRequests(Long userId, Integer from, Integer size, String after) {
+        if (after != null) {
+            Map<String, Object> parameters = Map.of(
+                    "size", size,
+                    "after", after
+            );
+            return get("/all?size={size}&after={after}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -46,7 +53,18 @@ public class RequestClient extends BaseClient {
     }
 
 
+    public ResponseEntity<Object> getFeed(Long userId, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "size", size
+        );
+        return get("/feed?size={size}", userId, parameters);
+    }
+
     public ResponseEntity<Object> getRequestById(Long userId, Long requestId) {
         return get("/" + requestId, userId);
     }
+
+    public ResponseEntity<Object> getMatches(Long userId, Long requestId) {
+        return get("/" + requestId + "/matches", userId);
+    }
 }
@@ -8,6 +8,8 @@ import ru.practicum.shareit.user.User;
 import java.time.LocalDateTime;
 
 @Entity
+@NamedEntityGraph(name = Booking.LIST_GRAPH,
+        attributeNodes = {@NamedAttributeNode("item"), @NamedAttributeNode("booker")})
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "bookings")
@@ -15,12 +17,14 @@ import java.time.LocalDateTime;
 @Setter
 @Builder
 public class Booking {
+    // Вещь и арендатор попадают в BookingDtoOut, владелец вещи нужен только по id
+    public static final String LIST_GRAPH = "Booking.list";
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", nullable = false)
     private Item item;
 
@@ -30,14 +34,25 @@ public class Booking {
     @Column(name = "end_date", nullable = false)
     private LocalDateTime end;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id", nullable = false)
     private User booker;
 
+    // Копия item.owner.id, чтобы выборки владельца не соединялись с items
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status")
     private BookingStatus status;
 
+    @PrePersist
+    void fillOwnerId() {
+        if (ownerId == null) {
+            ownerId = item.getOwner().getId();
+        }
+    }
+
     @Override
     public String toString() {
         return "Booking{" +
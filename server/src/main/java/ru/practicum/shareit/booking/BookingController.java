@@ -1,12 +1,20 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.ndjson.NdjsonWriter;
+import ru.practicum.shareit.pagination.CursorPages;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -14,10 +22,12 @@ import java.util.List;
 @Slf4j
 public class BookingController {
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -42,23 +52,57 @@ public class BookingController {
         return bookingService.findBooking(userId, bookingId);
     }
 
+    // С параметром after (пустым для первой страницы) выборка идёт по курсору,
+    // курсор следующей страницы возвращается в заголовке X-Next-Cursor
     @GetMapping
-    public List<BookingDtoOut> findByBooker(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                            @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
-                                            @RequestParam(value = "from", defaultValue = "0") int from,
-                                            @RequestParam(value = "size", defaultValue = "10") int size) {
+    public ResponseEntity<List<BookingDtoOut>> findByBooker(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                            @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
+                                                            @RequestParam(value = "from", defaultValue = "0") int from,
+                                                            @RequestParam(value = "size", defaultValue = "10") int size,
+                                                            @RequestParam(value = "after", required = false) String after) {
         log.info("Запрос на получение списка всех бронирований пользователя с id = {} и статусом: {}",
                 userId, bookingState);
-        return bookingService.findByBooker(userId, bookingState, from, size);
+        if (after == null) {
+            return ResponseEntity.ok(bookingService.findByBooker(userId, bookingState, from, size));
+        }
+        return CursorPages.withNextCursor(bookingService.findByBooker(userId, bookingState, KeysetCursor.decode(after), size),
+                size, booking -> new KeysetCursor(booking.getStart(), booking.getId()));
     }
 
     @GetMapping("/owner")
-    public List<BookingDtoOut> findByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                           @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
-                                           @RequestParam(value = "from", defaultValue = "0") int from,
-                                           @RequestParam(value = "size", defaultValue = "10") int size) {
+    public ResponseEntity<List<BookingDtoOut>> findByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                           @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
+                                                           @RequestParam(value = "from", defaultValue = "0") int from,
+                                                           @RequestParam(value = "size", defaultValue = "10") int size,
+                                                           @RequestParam(value = "after", required = false) String after) {
         log.info("Запрос на получение списка бронирований для всех вещей пользователя с id = {} и статусом: {}",
                 userId, bookingState);
-        return bookingService.findByOwner(userId, bookingState, from, size);
+        if (after == null) {
+            return ResponseEntity.ok(bookingService.findByOwner(userId, bookingState, from, size));
+        }
+        return CursorPages.withNextCursor(bookingService.findByOwner(userId, bookingState, KeysetCursor.decode(after), size),
+                size, booking -> new KeysetCursor(booking.getStart(), booking.getId()));
+    }
+
+    // Выгрузка всех бронирований без постраничного разбиения, строки отправляются по мере чтения из базы
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamByBooker(@RequestHeader("X-Sharer-User-Id") Long userId,
+                               @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
+                               HttpServletResponse response) throws IOException {
+        log.info("Запрос на выгрузку бронирований пользователя с id = {} и статусом: {}", userId, bookingState);
+        NdjsonWriter writer = new NdjsonWriter(response, objectMapper);
+        bookingService.streamByBooker(userId, bookingState, writer);
+        writer.finish();
+    }
+
+    @GetMapping(value = "/owner", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                              @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
+                              HttpServletResponse response) throws IOException {
+        log.info("Запрос на выгрузку бронирований для вещей пользователя с id = {} и статусом: {}",
+                userId, bookingState);
+        NdjsonWriter writer = new NdjsonWriter(response, objectMapper);
+        bookingService.streamByOwner(userId, bookingState, writer);
+        writer.finish();
     }
 }
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+// Проверка копии владельца в bookings при старте приложения. Существующие строки заполняет
+// db/bookings-owner-id.sql; здесь расхождения только подсчитываются, а исправляются
+// лишь при shareit.booking.owner-repair.enabled=true, так как это обновление всей таблицы
+@Component
+@Slf4j
+public class BookingOwnerConsistencyCheck {
+    private final BookingRepository bookingRepository;
+    private final boolean repairEnabled;
+
+    public BookingOwnerConsistencyCheck(BookingRepository bookingRepository,
+                                        @Value("${shareit.booking.owner-repair.enabled:false}") boolean repairEnabled) {
+        this.bookingRepository = bookingRepository;
+        this.repairEnabled = repairEnabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void check() {
+        long mismatches = bookingRepository.countOwnerIdMismatches();
+        if (mismatches == 0) {
+            return;
+        }
+        if (!repairEnabled) {
+            log.warn("Владелец вещи в бронированиях не совпадает с items у {} бронирований, " +
+                    "требуется запуск db/bookings-owner-id.sql", mismatches);
+            return;
+        }
+        int repaired = bookingRepository.repairOwnerIds();
+        log.warn("Владелец вещи в бронированиях не совпадал с items, исправлено бронирований: {}", repaired);
+    }
+}
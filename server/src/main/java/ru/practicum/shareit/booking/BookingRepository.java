@@ -1,45 +1,250 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.booking.interval.BookingIntervalView;
+import ru.practicum.shareit.item.owner.ItemBookingView;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    // Методы для itemService
-    List<Booking> findAllByItemAndStatusOrderByStartAsc(Item item, BookingStatus bookingStatus);
-
-    List<Booking> findAllByItemInAndStatusOrderByStartAsc(List<Item> items, BookingStatus status);
+    // Связанные сущности загружаются тем же запросом, чтобы чтение курсором не порождало запросов на строку
+    String STREAM_SELECT = "select b from Booking b join fetch b.item i join fetch b.booker ";
+    String BY_BOOKER = STREAM_SELECT + "where b.booker.id = :userId ";
+    String BY_OWNER = STREAM_SELECT + "where b.ownerId = :userId ";
+    // У каждого состояния свой запрос без необязательных условий, чтобы план строился по его индексу
+    String CURRENT = "and b.start < :time and b.end > :time ";
+    String PAST = "and b.end < :time ";
+    String FUTURE = "and b.start > :time ";
+    String WITH_STATUS = "and b.status = :status ";
+    String NEWEST_FIRST = "order by b.start desc, b.id desc";
+    // Страница начинается сразу после курсора, поэтому её стоимость не зависит от глубины
+    String AFTER_CURSOR = "and (b.start, b.id) < (:afterStart, :afterId) " + NEWEST_FIRST;
+    String INTERVAL_SELECT = "select b.id as id, b.item.id as itemId, b.start as start, b.end as end, " +
+            "b.status as status from Booking b ";
+
+    // Методы для itemService, по каждой вещи выбирается одно бронирование по индексу (item_id, status, start_date)
+    @Query(STREAM_SELECT + "where i.id in :itemIds and b.status = :status and b.start = " +
+            "(select max(p.start) from Booking p where p.item.id = i.id and p.status = :status and p.start < :time)")
+    List<Booking> findLastBookings(@Param("itemIds") Collection<Long> itemIds,
+                                   @Param("status") BookingStatus status,
+                                   @Param("time") LocalDateTime time);
+
+    @Query(STREAM_SELECT + "where i.id in :itemIds and b.status = :status and b.start = " +
+            "(select min(n.start) from Booking n where n.item.id = i.id and n.status = :status and n.start > :time)")
+    List<Booking> findNextBookings(@Param("itemIds") Collection<Long> itemIds,
+                                   @Param("status") BookingStatus status,
+                                   @Param("time") LocalDateTime time);
+
+    // Последнее и ближайшее бронирования каждой вещи одним запросом, только столбцы для списка вещей владельца
+    @Query("select b.item.id as itemId, b.id as id, b.start as start, b.end as end, b.status as status, " +
+            "u.id as bookerId, u.name as bookerName, u.email as bookerEmail " +
+            "from Booking b join b.booker u " +
+            "where b.item.id in :itemIds and b.status = :status and (" +
+            "b.start = (select max(p.start) from Booking p " +
+            "where p.item.id = b.item.id and p.status = :status and p.start < :time) or " +
+            "b.start = (select min(n.start) from Booking n " +
+            "where n.item.id = b.item.id and n.status = :status and n.start > :time))")
+    List<ItemBookingView> findNeighbourViews(@Param("itemIds") Collection<Long> itemIds,
+                                             @Param("status") BookingStatus status,
+                                             @Param("time") LocalDateTime time);
 
     List<Booking> findByBookerIdAndItemIdAndEndBefore(Long bookerId, Long itemId, LocalDateTime end);
 
+    @Override
+    @EntityGraph(Booking.LIST_GRAPH)
+    Optional<Booking> findById(Long id);
+
     // Методы для booker
+    @EntityGraph(Booking.LIST_GRAPH)
     List<Booking> findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(
             Long bookerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
 
+    @EntityGraph(Booking.LIST_GRAPH)
     List<Booking> findByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime end, Pageable pageable);
 
+    @EntityGraph(Booking.LIST_GRAPH)
     List<Booking> findByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime start, Pageable pageable);
 
+    @EntityGraph(Booking.LIST_GRAPH)
     List<Booking> findByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status, Pageable pageable);
 
+    @EntityGraph(Booking.LIST_GRAPH)
     List<Booking> findByBookerIdOrderByStartDesc(Long bookerId, Pageable pageable);
 
-    // Методы для owner
-    List<Booking> findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(
+    // Методы для owner, фильтр по копии владельца в bookings без соединения с items
+    @EntityGraph(Booking.LIST_GRAPH)
+    List<Booking> findByOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(
             Long ownerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
 
-    List<Booking> findByItemOwnerIdAndEndBeforeOrderByStartDesc(Long ownerId, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findByItemOwnerIdAndStartAfterOrderByStartDesc(Long ownerId, LocalDateTime start, Pageable pageable);
-
-    List<Booking> findByItemOwnerIdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status, Pageable pageable);
-
-    List<Booking> findByItemOwnerIdOrderByStartDesc(Long ownerId, Pageable pageable);
-
+    @EntityGraph(Booking.LIST_GRAPH)
+    List<Booking> findByOwnerIdAndEndBeforeOrderByStartDesc(Long ownerId, LocalDateTime end, Pageable pageable);
+
+    @EntityGraph(Booking.LIST_GRAPH)
+    List<Booking> findByOwnerIdAndStartAfterOrderByStartDesc(Long ownerId, LocalDateTime start, Pageable pageable);
+
+    @EntityGraph(Booking.LIST_GRAPH)
+    List<Booking> findByOwnerIdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status, Pageable pageable);
+
+    @EntityGraph(Booking.LIST_GRAPH)
+    List<Booking> findByOwnerIdOrderByStartDesc(Long ownerId, Pageable pageable);
+
+    // Методы для потоковой выгрузки
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(BY_BOOKER + NEWEST_FIRST)
+    Stream<Booking> streamByBooker(@Param("userId") Long bookerId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(BY_BOOKER + CURRENT + NEWEST_FIRST)
+    Stream<Booking> streamCurrentByBooker(@Param("userId") Long bookerId,
+                                          @Param("time") LocalDateTime time);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(BY_BOOKER + PAST + NEWEST_FIRST)
+    Stream<Booking> streamPastByBooker(@Param("userId") Long bookerId,
+                                       @Param("time") LocalDateTime time);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(BY_BOOKER + FUTURE + NEWEST_FIRST)
+    Stream<Booking> streamFutureByBooker(@Param("userId") Long bookerId,
+                                         @Param("time") LocalDateTime time);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(BY_BOOKER + WITH_STATUS + NEWEST_FIRST)
+    Stream<Booking> streamByBookerAndStatus(@Param("userId") Long bookerId,
+                                            @Param("status") BookingStatus status);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(BY_OWNER + NEWEST_FIRST)
+    Stream<Booking> streamByOwner(@Param("userId") Long ownerId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(BY_OWNER + CURRENT + NEWEST_FIRST)
+    Stream<Booking> streamCurrentByOwner(@Param("userId") Long ownerId,
+                                         @Param("time") LocalDateTime time);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(BY_OWNER + PAST + NEWEST_FIRST)
+    Stream<Booking> streamPastByOwner(@Param("userId") Long ownerId,
+                                      @Param("time") LocalDateTime time);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(BY_OWNER + FUTURE + NEWEST_FIRST)
+    Stream<Booking> streamFutureByOwner(@Param("userId") Long ownerId,
+                                        @Param("time") LocalDateTime time);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(BY_OWNER + WITH_STATUS + NEWEST_FIRST)
+    Stream<Booking> streamByOwnerAndStatus(@Param("userId") Long ownerId,
+                                           @Param("status") BookingStatus status);
+
+    // Методы для постраничного чтения по курсору
+    @Query(BY_BOOKER + AFTER_CURSOR)
+    List<Booking> findPageByBooker(@Param("userId") Long bookerId,
+                                   @Param("afterStart") LocalDateTime afterStart,
+                                   @Param("afterId") Long afterId,
+                                   Limit limit);
+
+    @Query(BY_BOOKER + CURRENT + AFTER_CURSOR)
+    List<Booking> findCurrentPageByBooker(@Param("userId") Long bookerId,
+                                          @Param("time") LocalDateTime time,
+                                          @Param("afterStart") LocalDateTime afterStart,
+                                          @Param("afterId") Long afterId,
+                                          Limit limit);
+
+    @Query(BY_BOOKER + PAST + AFTER_CURSOR)
+    List<Booking> findPastPageByBooker(@Param("userId") Long bookerId,
+                                       @Param("time") LocalDateTime time,
+                                       @Param("afterStart") LocalDateTime afterStart,
+                                       @Param("afterId") Long afterId,
+                                       Limit limit);
+
+    @Query(BY_BOOKER + FUTURE + AFTER_CURSOR)
+    List<Booking> findFuturePageByBooker(@Param("userId") Long bookerId,
+                                         @Param("time") LocalDateTime time,
+                                         @Param("afterStart") LocalDateTime afterStart,
+                                         @Param("afterId") Long afterId,
+                                         Limit limit);
+
+    @Query(BY_BOOKER + WITH_STATUS + AFTER_CURSOR)
+    List<Booking> findPageByBookerAndStatus(@Param("userId") Long bookerId,
+                                            @Param("status") BookingStatus status,
+                                            @Param("afterStart") LocalDateTime afterStart,
+                                            @Param("afterId") Long afterId,
+                                            Limit limit);
+
+    @Query(BY_OWNER + AFTER_CURSOR)
+    List<Booking> findPageByOwner(@Param("userId") Long ownerId,
+                                  @Param("afterStart") LocalDateTime afterStart,
+                                  @Param("afterId") Long afterId,
+                                  Limit limit);
+
+    @Query(BY_OWNER + CURRENT + AFTER_CURSOR)
+    List<Booking> findCurrentPageByOwner(@Param("userId") Long ownerId,
+                                         @Param("time") LocalDateTime time,
+                                         @Param("afterStart") LocalDateTime afterStart,
+                                         @Param("afterId") Long afterId,
+                                         Limit limit);
+
+    @Query(BY_OWNER + PAST + AFTER_CURSOR)
+    List<Booking> findPastPageByOwner(@Param("userId") Long ownerId,
+                                      @Param("time") LocalDateTime time,
+                                      @Param("afterStart") LocalDateTime afterStart,
+                                      @Param("afterId") Long afterId,
+                                      Limit limit);
+
+    @Query(BY_OWNER + FUTURE + AFTER_CURSOR)
+    List<Booking> findFuturePageByOwner(@Param("userId") Long ownerId,
+                                        @Param("time") LocalDateTime time,
+                                        @Param("afterStart") LocalDateTime afterStart,
+                                        @Param("afterId") Long afterId,
+                                        Limit limit);
+
+    @Query(BY_OWNER + WITH_STATUS + AFTER_CURSOR)
+    List<Booking> findPageByOwnerAndStatus(@Param("userId") Long ownerId,
+                                           @Param("status") BookingStatus status,
+                                           @Param("afterStart") LocalDateTime afterStart,
+                                           @Param("afterId") Long afterId,
+                                           Limit limit);
+
+    @Query("select count(b) from Booking b join b.item i where b.ownerId <> i.owner.id")
+    long countOwnerIdMismatches();
+
+    // Исправляет копию владельца, разошедшуюся с items, возвращает число исправленных строк
+    @Modifying
+    @Query("update Booking b set b.ownerId = (select i.owner.id from Item i where i.id = b.item.id) " +
+            "where b.ownerId <> (select i.owner.id from Item i where i.id = b.item.id)")
+    int repairOwnerIds();
+
+    // Методы для проверки пересечений бронирований
+    @Query("select count(b) > 0 from Booking b where b.item.id = :itemId and b.status = :status " +
+            "and (:excludeId is null or b.id <> :excludeId) and b.start < :end and b.end > :start")
+    boolean existsOverlapping(@Param("itemId") Long itemId,
+                              @Param("excludeId") Long excludeId,
+                              @Param("status") BookingStatus status,
+                              @Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(INTERVAL_SELECT + "where b.status = :status")
+    Stream<BookingIntervalView> findAllIntervalsByStatus(@Param("status") BookingStatus status);
+
+    @Query(INTERVAL_SELECT + "where b.item.id = :itemId and b.status in :statuses order by b.start")
+    List<BookingIntervalView> findIntervalsByItemId(@Param("itemId") Long itemId,
+                                                    @Param("statuses") Collection<BookingStatus> statuses);
 }
@@ -3,9 +3,12 @@ package ru.practicum.shareit.booking.dto;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.owner.ItemBookingView;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 
 // !! Добавить аннотации!!
@@ -31,4 +34,19 @@ public class BookingMapper {
                 .status(booking.getStatus())
                 .build();
     }
-}
\ No newline at end of file
+
+    public BookingDtoOut toBookingOut(ItemBookingView booking, ItemDtoOut item) {
+        return BookingDtoOut.builder()
+                .id(booking.getId())
+                .item(item)
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .booker(UserDto.builder()
+                        .id(booking.getBookerId())
+                        .name(booking.getBookerName())
+                        .email(booking.getBookerEmail())
+                        .build())
+                .status(booking.getStatus())
+                .build();
+    }
+}
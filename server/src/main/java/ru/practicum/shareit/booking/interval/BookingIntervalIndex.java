@@ -0,0 +1,142 @@
+package ru.practicum.shareit.booking.interval;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Подтверждённые бронирования каждой вещи, упорядоченные по началу. Интервалы полуоткрытые [start, end).
+// Подтверждённые интервалы одной вещи не пересекаются, поэтому для проверки нового интервала
+// достаточно ближайшего слева по началу: O(log n) без обращения к базе данных.
+// Пересечения в уже сохранённых данных (в H2 нет ограничения базы) обнаруживаются при загрузке,
+// для таких вещей проверяются все интервалы, начинающиеся раньше конца нового.
+@Component
+@Slf4j
+public class BookingIntervalIndex {
+    private static final Comparator<Interval> BY_START = Comparator.comparing(Interval::start)
+            .thenComparingLong(Interval::bookingId);
+
+    private final Map<Long, NavigableSet<Interval>> items = new HashMap<>();
+    private final Map<Long, Interval> bookings = new HashMap<>();
+    private final Set<Long> overlappingItems = new HashSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    // Индекс готов к проверкам после первоначальной загрузки бронирований из базы
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    // Пересекается ли интервал с подтверждёнными бронированиями вещи, кроме бронирования excludeId
+    public boolean overlaps(Long itemId, Long excludeId, LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            return findOverlap(itemId, excludeId, start, end) != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Атомарно проверяет пересечение и добавляет бронирование. Возвращает false, если вещь уже занята
+    public boolean reserve(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        lock.writeLock().lock();
+        try {
+            if (findOverlap(itemId, bookingId, start, end) != null) {
+                return false;
+            }
+            add(new Interval(itemId, bookingId, start, end));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Добавление без отказа, используется при загрузке из базы
+    public void put(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        lock.writeLock().lock();
+        try {
+            Interval overlap = findOverlap(itemId, bookingId, start, end);
+            if (overlap != null && overlappingItems.add(itemId)) {
+                log.warn("Подтверждённые бронирования {} и {} вещи {} пересекаются", overlap.bookingId(), bookingId,
+                        itemId);
+            }
+            add(new Interval(itemId, bookingId, start, end));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookingId) {
+        lock.writeLock().lock();
+        try {
+            removeInterval(bookingId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return bookings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Interval findOverlap(Long itemId, Long excludeId, LocalDateTime start, LocalDateTime end) {
+        NavigableSet<Interval> intervals = items.get(itemId);
+        if (intervals == null) {
+            return null;
+        }
+        Interval probe = new Interval(itemId, Long.MIN_VALUE, end, end);
+        if (overlappingItems.contains(itemId)) {
+            for (Interval interval : intervals.headSet(probe, false)) {
+                if ((excludeId == null || interval.bookingId() != excludeId) && interval.end().isAfter(start)) {
+                    return interval;
+                }
+            }
+            return null;
+        }
+        Interval previous = intervals.lower(probe);
+        if (previous != null && excludeId != null && previous.bookingId() == excludeId) {
+            previous = intervals.lower(previous);
+        }
+        return previous != null && previous.end().isAfter(start) ? previous : null;
+    }
+
+    private void add(Interval interval) {
+        removeInterval(interval.bookingId());
+        items.computeIfAbsent(interval.itemId(), id -> new TreeSet<>(BY_START)).add(interval);
+        bookings.put(interval.bookingId(), interval);
+    }
+
+    private void removeInterval(Long bookingId) {
+        Interval interval = bookings.remove(bookingId);
+        if (interval == null) {
+            return;
+        }
+        NavigableSet<Interval> intervals = items.get(interval.itemId());
+        intervals.remove(interval);
+        if (intervals.isEmpty()) {
+            items.remove(interval.itemId());
+            overlappingItems.remove(interval.itemId());
+        }
+    }
+
+    private record Interval(long itemId, long bookingId, LocalDateTime start, LocalDateTime end) {
+    }
+}
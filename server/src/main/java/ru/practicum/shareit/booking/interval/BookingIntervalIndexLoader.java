@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking.interval;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.util.stream.Stream;
+
+// Построение индекса подтверждённых бронирований из таблицы bookings при старте приложения
+@Component
+@Slf4j
+public class BookingIntervalIndexLoader {
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+
+    public BookingIntervalIndexLoader(BookingRepository bookingRepository, BookingIntervalIndex bookingIntervalIndex) {
+        this.bookingRepository = bookingRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+    }
+
+    // До окончания загрузки пересечения проверяются запросом к базе данных
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        try (Stream<BookingIntervalView> bookings = bookingRepository.findAllIntervalsByStatus(BookingStatus.APPROVED)) {
+            bookings.forEach(booking -> bookingIntervalIndex.put(booking.getItemId(), booking.getId(),
+                    booking.getStart(), booking.getEnd()));
+        }
+        bookingIntervalIndex.markReady();
+        log.info("Индекс бронирований построен, подтверждённых бронирований: {}", bookingIntervalIndex.size());
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.interval;
+
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+// Проекция бронирования с полями, необходимыми для индекса интервалов и календаря вещи
+public interface BookingIntervalView {
+
+    Long getId();
+
+    Long getItemId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+    BookingStatus getStatus();
+}
@@ -1,10 +1,11 @@
 package ru.practicum.shareit.booking.service;
 
-
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
 
@@ -17,4 +18,12 @@ public interface BookingService {
     List<BookingDtoOut> findByBooker(Long userId, String state, int from, int size);
 
     List<BookingDtoOut> findByOwner(Long userId, String state, int from, int size);
+
+    List<BookingDtoOut> findByBooker(Long userId, String state, KeysetCursor after, int size);
+
+    List<BookingDtoOut> findByOwner(Long userId, String state, KeysetCursor after, int size);
+
+    void streamByBooker(Long userId, String state, Consumer<? super BookingDtoOut> consumer);
+
+    void streamByOwner(Long userId, String state, Consumer<? super BookingDtoOut> consumer);
 }
@@ -1,11 +1,15 @@
 package ru.practicum.shareit.booking.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingState;
@@ -13,33 +17,50 @@ import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.exception.AccessDeniedException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.availability.ItemAvailabilityCache;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final int STREAM_CLEAR_ROWS = 500;
+    private static final Sort NEWEST_ID_FIRST = Sort.by(Sort.Direction.DESC, "id");
     private final BookingRepository bookingRepository;
     private final UserService userService;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemAvailabilityCache itemAvailabilityCache;
+    private final EntityManager entityManager;
 
     @Autowired
     public BookingServiceImpl(BookingRepository bookingRepository, UserService userService,
-                              ItemRepository itemRepository) {
+                              ItemRepository itemRepository, BookingIntervalIndex bookingIntervalIndex,
+                              ItemAvailabilityCache itemAvailabilityCache, EntityManager entityManager) {
         this.bookingRepository = bookingRepository;
         this.userService = userService;
         this.itemRepository = itemRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.itemAvailabilityCache = itemAvailabilityCache;
+        this.entityManager = entityManager;
     }
 
     @Override
@@ -51,6 +72,7 @@ public class BookingServiceImpl implements BookingService {
         bookingValidation(bookingDto, user, item);
         Booking booking = BookingMapper.toBooking(user, item, bookingDto);
         booking = bookingRepository.save(booking);
+        afterCompletion(true, () -> itemAvailabilityCache.invalidate(item.getId()));
         log.info("Запрос на создание бронирования {} создан", booking);
         return BookingMapper.toBookingOut(booking);
     }
@@ -67,8 +89,14 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException("Запрос на бронь был отменён и имеет статус CANCELED");
         }
         BookingStatus newStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (newStatus == BookingStatus.APPROVED && booking.getStatus() != BookingStatus.APPROVED) {
+            reserve(booking);
+        } else if (newStatus == BookingStatus.REJECTED && booking.getStatus() == BookingStatus.APPROVED) {
+            release(booking);
+        }
         booking.setStatus(newStatus);
         bookingRepository.save(booking);
+        afterCompletion(true, () -> itemAvailabilityCache.invalidate(booking.getItem().getId()));
         return BookingMapper.toBookingOut(booking);
     }
 
@@ -85,11 +113,10 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingDtoOut> findByBooker(Long bookerId, String state, int from, int size) {
-        User user = UserMapper.toUser(userService.findById(bookerId));
+        checkUser(bookerId);
         List<Booking> bookings;
         LocalDateTime time = LocalDateTime.now();
-        int page = getPageNumber(from, size);
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = new OffsetPageRequest(from, size, NEWEST_ID_FIRST);
 
         switch (validState(state)) {
             case CURRENT:
@@ -117,29 +144,99 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingDtoOut> findByOwner(Long ownerId, String state, int from, int size) {
-        User user = UserMapper.toUser(userService.findById(ownerId));
+        checkUser(ownerId);
+        List<Booking> bookings;
+        LocalDateTime time = LocalDateTime.now();
+        Pageable pageable = new OffsetPageRequest(from, size, NEWEST_ID_FIRST);
+
+        switch (validState(state)) {
+            case CURRENT:
+                bookings = bookingRepository.findByOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(ownerId, time, time, pageable);
+                break;
+            case PAST:
+                bookings = bookingRepository.findByOwnerIdAndEndBeforeOrderByStartDesc(ownerId, time, pageable);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findByOwnerIdAndStartAfterOrderByStartDesc(ownerId, time, pageable);
+                break;
+            case WAITING:
+            case REJECTED:
+                BookingStatus status = BookingStatus.valueOf(state);
+                bookings = bookingRepository.findByOwnerIdAndStatusOrderByStartDesc(ownerId, status, pageable);
+                break;
+            default: // ALL
+                bookings = bookingRepository.findByOwnerIdOrderByStartDesc(ownerId, pageable);
+        }
+
+        return bookings.stream()
+                .map(BookingMapper::toBookingOut)
+                .collect(Collectors.toList());
+    }
+
+    // Первая страница читается тем же запросом, что и страница со смещением 0
+    @Override
+    public List<BookingDtoOut> findByBooker(Long bookerId, String state, KeysetCursor after, int size) {
+        if (after == null) {
+            return findByBooker(bookerId, state, 0, size);
+        }
+        checkUser(bookerId);
+        List<Booking> bookings;
+        LocalDateTime time = LocalDateTime.now();
+        Limit limit = Limit.of(size);
+
+        switch (validState(state)) {
+            case CURRENT:
+                bookings = bookingRepository.findCurrentPageByBooker(bookerId, time, after.time(), after.id(), limit);
+                break;
+            case PAST:
+                bookings = bookingRepository.findPastPageByBooker(bookerId, time, after.time(), after.id(), limit);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findFuturePageByBooker(bookerId, time, after.time(), after.id(), limit);
+                break;
+            case WAITING:
+            case REJECTED:
+                BookingStatus status = BookingStatus.valueOf(state);
+                bookings = bookingRepository.findPageByBookerAndStatus(bookerId, status, after.time(), after.id(),
+                        limit);
+                break;
+            default: // ALL
+                bookings = bookingRepository.findPageByBooker(bookerId, after.time(), after.id(), limit);
+        }
+
+        return bookings.stream()
+                .map(BookingMapper::toBookingOut)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<BookingDtoOut> findByOwner(Long ownerId, String state, KeysetCursor after, int size) {
+        if (after == null) {
+            return findByOwner(ownerId, state, 0, size);
+        }
+        checkUser(ownerId);
         List<Booking> bookings;
         LocalDateTime time = LocalDateTime.now();
-        int page = getPageNumber(from, size);
-        Pageable pageable = PageRequest.of(page, size);
+        Limit limit = Limit.of(size);
 
         switch (validState(state)) {
             case CURRENT:
-                bookings = bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(ownerId, time, time, pageable);
+                bookings = bookingRepository.findCurrentPageByOwner(ownerId, time, after.time(), after.id(), limit);
                 break;
             case PAST:
-                bookings = bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDesc(ownerId, time, pageable);
+                bookings = bookingRepository.findPastPageByOwner(ownerId, time, after.time(), after.id(), limit);
                 break;
             case FUTURE:
-                bookings = bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc(ownerId, time, pageable);
+                bookings = bookingRepository.findFuturePageByOwner(ownerId, time, after.time(), after.id(), limit);
                 break;
             case WAITING:
             case REJECTED:
                 BookingStatus status = BookingStatus.valueOf(state);
-                bookings = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(ownerId, status, pageable);
+                bookings = bookingRepository.findPageByOwnerAndStatus(ownerId, status, after.time(), after.id(),
+                        limit);
                 break;
             default: // ALL
-                bookings = bookingRepository.findByItemOwnerIdOrderByStartDesc(ownerId, pageable);
+                bookings = bookingRepository.findPageByOwner(ownerId, after.time(), after.id(), limit);
         }
 
         return bookings.stream()
@@ -147,6 +244,75 @@ public class BookingServiceImpl implements BookingService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public void streamByBooker(Long bookerId, String state, Consumer<? super BookingDtoOut> consumer) {
+        checkUser(bookerId);
+        LocalDateTime time = LocalDateTime.now();
+        Stream<Booking> bookings;
+
+        switch (validState(state)) {
+            case CURRENT:
+                bookings = bookingRepository.streamCurrentByBooker(bookerId, time);
+                break;
+            case PAST:
+                bookings = bookingRepository.streamPastByBooker(bookerId, time);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.streamFutureByBooker(bookerId, time);
+                break;
+            case WAITING:
+            case REJECTED:
+                bookings = bookingRepository.streamByBookerAndStatus(bookerId, BookingStatus.valueOf(state));
+                break;
+            default: // ALL
+                bookings = bookingRepository.streamByBooker(bookerId);
+        }
+
+        try (bookings) {
+            writeDetached(bookings, consumer);
+        }
+    }
+
+    @Override
+    public void streamByOwner(Long ownerId, String state, Consumer<? super BookingDtoOut> consumer) {
+        checkUser(ownerId);
+        LocalDateTime time = LocalDateTime.now();
+        Stream<Booking> bookings;
+
+        switch (validState(state)) {
+            case CURRENT:
+                bookings = bookingRepository.streamCurrentByOwner(ownerId, time);
+                break;
+            case PAST:
+                bookings = bookingRepository.streamPastByOwner(ownerId, time);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.streamFutureByOwner(ownerId, time);
+                break;
+            case WAITING:
+            case REJECTED:
+                bookings = bookingRepository.streamByOwnerAndStatus(ownerId, BookingStatus.valueOf(state));
+                break;
+            default: // ALL
+                bookings = bookingRepository.streamByOwner(ownerId);
+        }
+
+        try (bookings) {
+            writeDetached(bookings, consumer);
+        }
+    }
+
+    // Контекст персистентности очищается порциями, поэтому память не растёт с числом строк
+    private void writeDetached(Stream<Booking> bookings, Consumer<? super BookingDtoOut> consumer) {
+        Iterator<Booking> iterator = bookings.iterator();
+        for (int rows = 1; iterator.hasNext(); rows++) {
+            consumer.accept(BookingMapper.toBookingOut(iterator.next()));
+            if (rows % STREAM_CLEAR_ROWS == 0) {
+                entityManager.clear();
+            }
+        }
+    }
+
     private void bookingValidation(BookingDto bookingDto, User user, Item item) {
         if (user.getId().equals(item.getOwner().getId())) {
             throw new ValidationException("Вещь не может быть забронирована самим собой");
@@ -157,6 +323,55 @@ public class BookingServiceImpl implements BookingService {
         if (bookingDto.getStart().isAfter(bookingDto.getEnd()) || bookingDto.getStart().isEqual(bookingDto.getEnd())) {
             throw new ValidationException("Дата окончания не может быть раньше или равна дате начала");
         }
+        if (overlapsApproved(item.getId(), null, bookingDto.getStart(), bookingDto.getEnd())) {
+            throw new ConflictException("Вещь уже забронирована на этот период");
+        }
+    }
+
+    private boolean overlapsApproved(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        if (bookingIntervalIndex.isReady()) {
+            return bookingIntervalIndex.overlaps(itemId, bookingId, start, end);
+        }
+        return bookingRepository.existsOverlapping(itemId, bookingId, BookingStatus.APPROVED, start, end);
+    }
+
+    // Индекс каждого экземпляра приложения видит только свои подтверждения. Блокировка строки вещи
+    // упорядочивает подтверждения её бронирований между экземплярами, после неё проверка по базе видит
+    // все зафиксированные подтверждения. Проверка и добавление в индекс атомарны,
+    // при откате транзакции интервал освобождается
+    private void reserve(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        itemRepository.findForUpdateById(itemId);
+        if (bookingRepository.existsOverlapping(itemId, booking.getId(),
+                BookingStatus.APPROVED, booking.getStart(), booking.getEnd())) {
+            throw new ConflictException("Вещь уже забронирована на этот период");
+        }
+        if (!bookingIntervalIndex.reserve(itemId, booking.getId(), booking.getStart(), booking.getEnd())) {
+            throw new ConflictException("Вещь уже забронирована на этот период");
+        }
+        afterCompletion(false, () -> bookingIntervalIndex.remove(booking.getId()));
+    }
+
+    // Интервал освобождается только после фиксации отказа
+    private void release(Booking booking) {
+        afterCompletion(true, () -> bookingIntervalIndex.remove(booking.getId()));
+    }
+
+    private void afterCompletion(boolean committed, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (committed) {
+                action.run();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if ((status == STATUS_COMMITTED) == committed) {
+                    action.run();
+                }
+            }
+        });
     }
 
     private BookingState validState(String bookingState) {
@@ -167,7 +382,9 @@ public class BookingServiceImpl implements BookingService {
         return state;
     }
 
-    private int getPageNumber(int from, int size) {
-        return from / size;
+    private void checkUser(Long userId) {
+        if (!userService.existsById(userId)) {
+            throw new NotFoundException("Пользователь с " + userId + " не найден");
+        }
     }
 }
@@ -1,25 +1,40 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentDtoOut;
+import ru.practicum.shareit.item.dto.FreeIntervalDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.ndjson.NdjsonWriter;
+import ru.practicum.shareit.pagination.CursorPages;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping("/items")
 @Slf4j
 public class ItemController {
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, ObjectMapper objectMapper) {
         this.itemService = itemService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -53,9 +68,57 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public Collection<ItemDtoOut> findItemsOnText(@RequestParam("text") String text) {
-        log.info("Запрос на поиск вещей, содержащих строку = {}", text);
-        return itemService.findItemsOnText(text);
+    public Collection<ItemDtoOut> findItemsOnText(@RequestParam("text") String text,
+                                                  @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                  @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+                                                  @RequestParam(value = "from", defaultValue = "0") int from,
+                                                  @RequestParam(value = "size", defaultValue = "10") int size) {
+        log.info("Запрос на поиск вещей, содержащих строку = {}, сортировка: {}, с опечатками: {}", text, sort, fuzzy);
+        return itemService.findItemsOnText(text, sort, fuzzy, from, size);
+    }
+
+    // Страница найденных вещей вместе со счётчиками по всем найденным вещам
+    @GetMapping(value = "/search", params = "facets=true")
+    public ItemSearchResultDto findItemsWithFacets(@RequestParam("text") String text,
+                                                   @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                   @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+                                                   @RequestParam(value = "from", defaultValue = "0") int from,
+                                                   @RequestParam(value = "size", defaultValue = "10") int size) {
+        log.info("Запрос на поиск вещей с фасетами, содержащих строку = {}, сортировка: {}, с опечатками: {}",
+                text, sort, fuzzy);
+        return itemService.findItemsWithFacets(text, sort, fuzzy, from, size);
+    }
+
+    // Выгрузка всех найденных вещей без постраничного разбиения
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamItemsOnText(@RequestParam("text") String text,
+                                  @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                  @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+                                  HttpServletResponse response) throws IOException {
+        log.info("Запрос на выгрузку вещей, содержащих строку = {}, сортировка: {}", text, sort);
+        NdjsonWriter writer = new NdjsonWriter(response, objectMapper);
+        itemService.streamItemsOnText(text, sort, fuzzy, writer);
+        writer.finish();
+    }
+
+
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam("prefix") String prefix,
+                                @RequestParam(value = "size", defaultValue = "10") int size) {
+        log.info("Запрос подсказок для префикса = {}", prefix);
+        return itemService.suggest(prefix, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public List<FreeIntervalDto> findAvailability(@PathVariable("itemId") Long itemId,
+                                                  @RequestParam("from")
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam("to")
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                  @RequestParam(value = "includeWaiting", defaultValue = "false")
+                                                  boolean includeWaiting) {
+        log.info("Запрос свободных периодов вещи с id = {} c {} по {}", itemId, from, to);
+        return itemService.findAvailability(itemId, from, to, includeWaiting);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -65,4 +128,15 @@ public class ItemController {
         log.info("POST Запрос на создание комментария для вещи с id = {} от пользователя с id = {}", itemId, userId);
         return itemService.createComment(userId, commentDto, itemId);
     }
+
+    // Без параметра after или с пустым after возвращается первая страница,
+    // курсор следующей страницы возвращается в заголовке X-Next-Cursor
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDtoOut>> getComments(@PathVariable(name = "itemId") Long itemId,
+                                                           @RequestParam(value = "after", defaultValue = "") String after,
+                                                           @RequestParam(value = "size", defaultValue = "10") int size) {
+        log.info("Запрос комментариев вещи с id = {} после {}", itemId, after);
+        return CursorPages.withNextCursor(itemService.getComments(itemId, KeysetCursor.decode(after), size),
+                size, comment -> new KeysetCursor(comment.getCreated(), comment.getId()));
+    }
 }
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.availability;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+// Кеш занятых интервалов вещи: id вещи -> подтверждённые и ожидающие бронирования, упорядоченные по началу.
+// Размер ограничен суммарным числом хранимых интервалов, запись сбрасывается при изменении бронирований вещи
+@Component
+public class ItemAvailabilityCache implements MeterBinder {
+    private final Cache<Long, List<Busy>> cache;
+
+    public ItemAvailabilityCache(@Value("${shareit.availability.cache.max-weight:100000}") long maxWeight) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long itemId, List<Busy> intervals) -> intervals.size() + 1)
+                .recordStats()
+                .build();
+    }
+
+    // Сброс записи дожидается её загрузки, поэтому устаревший результат в кеше не остаётся
+    public List<Busy> get(Long itemId, Function<Long, List<Busy>> loader) {
+        return cache.get(itemId, id -> List.copyOf(loader.apply(id)));
+    }
+
+    public void invalidate(Long itemId) {
+        cache.invalidate(itemId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "itemAvailability");
+    }
+
+    public record Busy(LocalDateTime start, LocalDateTime end, boolean approved) {
+    }
+}
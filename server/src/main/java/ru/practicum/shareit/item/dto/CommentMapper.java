@@ -3,6 +3,7 @@ package ru.practicum.shareit.item.dto;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.owner.ItemCommentView;
 import ru.practicum.shareit.user.User;
 
 
@@ -26,6 +27,16 @@ public class CommentMapper {
                 .build();
     }
 
+    public static CommentDtoOut toCommentDtoOut(ItemCommentView comment) {
+        return CommentDtoOut.builder()
+                .id(comment.getId())
+                .text(comment.getText())
+                .authorName(comment.getAuthorName())
+                .created(comment.getCreated())
+                .itemId(comment.getItemId())
+                .build();
+    }
+
     public static Comment toComment(CommentDto commentDto, Item item, User user) {
         return Comment.builder()
                 .text(commentDto.getText())
@@ -16,5 +16,6 @@ public class ItemDtoOut {
     private BookingDtoOut lastBooking;
     private BookingDtoOut nextBooking;
     private List<CommentDtoOut> comments;
+    private Long commentCount;
     private Long requestId;
 }
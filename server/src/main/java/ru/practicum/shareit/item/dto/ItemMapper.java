@@ -3,6 +3,7 @@ package ru.practicum.shareit.item.dto;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.owner.ItemOwnerView;
 
 import java.util.List;
 
@@ -28,6 +29,7 @@ public class ItemMapper {
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
+                .commentCount(item.getCommentCount())
                 .build();
     }
 
@@ -41,6 +43,31 @@ public class ItemMapper {
                 .lastBooking(lastBooking)
                 .nextBooking(nextBooking)
                 .comments(comments)
+                .commentCount(item.getCommentCount())
+                .build();
+    }
+
+    public static ItemDtoOut toItemDtoOut(ItemOwnerView item) {
+        return ItemDtoOut.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .commentCount(item.getCommentCount())
+                .build();
+    }
+
+    public static ItemDtoOut toItemDtoOut(ItemOwnerView item, BookingDtoOut lastBooking, BookingDtoOut nextBooking,
+                                          List<CommentDtoOut> comments) {
+        return ItemDtoOut.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .lastBooking(lastBooking)
+                .nextBooking(nextBooking)
+                .comments(comments)
+                .commentCount(item.getCommentCount())
                 .build();
     }
 
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ItemSearchFacetsDto {
+    private long total;
+    private long withRequest;
+    private long withoutRequest;
+    private List<OwnerCount> owners;
+
+    @Data
+    @AllArgsConstructor
+    public static class OwnerCount {
+        private Long ownerId;
+        private long count;
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ItemSearchResultDto {
+    private List<ItemDtoOut> items;
+    private ItemSearchFacetsDto facets;
+}
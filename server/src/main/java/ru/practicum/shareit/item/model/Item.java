@@ -2,11 +2,16 @@ package ru.practicum.shareit.item.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "items")
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "items")
@@ -28,14 +33,20 @@ public class Item {
     @Column(name = "available", nullable = false)
     private Boolean available;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     private ItemRequest request;
 
+    // Увеличивается при добавлении комментария, чтобы карточка вещи не считала комментарии
+    @Column(name = "comment_count", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long commentCount = 0L;
+
     @Override
     public String toString() {
         return "Item{" +
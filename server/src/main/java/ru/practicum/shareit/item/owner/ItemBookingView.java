@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.owner;
+
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+// Проекция последнего или ближайшего бронирования вещи вместе с данными арендатора
+public interface ItemBookingView {
+
+    Long getItemId();
+
+    Long getId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+    BookingStatus getStatus();
+
+    Long getBookerId();
+
+    String getBookerName();
+
+    String getBookerEmail();
+}
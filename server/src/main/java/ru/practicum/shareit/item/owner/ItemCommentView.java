@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.owner;
+
+import java.time.LocalDateTime;
+
+// Проекция комментария с именем автора без загрузки сущностей вещи и пользователя
+public interface ItemCommentView {
+
+    Long getId();
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+
+    Long getItemId();
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.owner;
+
+// Проекция вещи со столбцами, которые попадают в ItemDtoOut в списке вещей владельца
+public interface ItemOwnerView {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getCommentCount();
+}
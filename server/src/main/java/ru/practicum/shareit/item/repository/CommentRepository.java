@@ -1,13 +1,40 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.owner.ItemCommentView;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findAllByItemId(Long itemId);
+    // Страница после курсора, новые комментарии первыми. Пустой курсор означает первую страницу
+    @Query("select c.id as id, c.text as text, c.author.name as authorName, c.created as created, " +
+            "c.item.id as itemId " +
+            "from Comment as c " +
+            "where c.item.id = :itemId " +
+            "and (:afterCreated is null or (c.created, c.id) < (:afterCreated, :afterId)) " +
+            "order by c.created desc, c.id desc")
+    List<ItemCommentView> findPageByItemId(@Param("itemId") Long itemId,
+                                           @Param("afterCreated") LocalDateTime afterCreated,
+                                           @Param("afterId") Long afterId,
+                                           Limit limit);
 
-    List<Comment> findAllByItemIdIn(List<Long> itemIdList);
+    // Не больше limit новых комментариев каждой вещи одним запросом
+    @Query("select c.id as id, c.text as text, c.authorName as authorName, c.created as created, " +
+            "c.itemId as itemId " +
+            "from (select c.id as id, c.text as text, c.author.name as authorName, c.created as created, " +
+            "c.item.id as itemId, " +
+            "row_number() over (partition by c.item.id order by c.created desc, c.id desc) as position " +
+            "from Comment as c " +
+            "where c.item.id in :itemIds) as c " +
+            "where c.position <= :limit " +
+            "order by c.itemId, c.created desc, c.id desc")
+    List<ItemCommentView> findLatestViewsByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                                    @Param("limit") int limit);
 }
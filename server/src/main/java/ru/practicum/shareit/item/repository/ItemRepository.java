@@ -1,19 +1,86 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.owner.ItemOwnerView;
+import ru.practicum.shareit.item.search.ItemSearchFacetView;
+import ru.practicum.shareit.item.search.ItemSearchView;
+import ru.practicum.shareit.request.feed.ItemTermsView;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
-    List<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @Query("select i.id from Item as i where i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    // Комментарии к одной вещи добавляются по очереди, и счётчик не теряет приращений.
+    // Изменение через сущность, а не массовым update, не сбрасывает весь регион вещей в кеше второго уровня
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item as i where i.id = :itemId")
+    Optional<Item> findForUpdateById(@Param("itemId") Long itemId);
+
+    // Только столбцы ItemDtoOut, без загрузки владельца и запроса вещи
+    @Query("select i.id as id, i.name as name, i.description as description, i.available as available, " +
+            "i.commentCount as commentCount " +
+            "from Item as i " +
+            "where i.owner.id = :ownerId " +
+            "order by i.id")
+    List<ItemOwnerView> findViewsByOwnerId(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Query("select i.id " +
+            "from Item as i " +
+            "where i.available = true and " +
+            "(lower(i.name) like lower(concat('%', :text, '%')) or " +
+            "lower(i.description) like lower(concat('%', :text, '%'))) " +
+            "order by i.id " +
+            "limit :size offset :from")
+    List<Long> searchAvailableIds(@Param("text") String text, @Param("from") int from, @Param("size") int size);
+
+    @Query("select i.id " +
+            "from Item as i " +
+            "where i.available = true and " +
+            "(lower(i.name) like lower(concat('%', :text, '%')) or " +
+            "lower(i.description) like lower(concat('%', :text, '%'))) " +
+            "order by case when lower(i.name) like lower(concat('%', :text, '%')) then 0 else 1 end, i.id " +
+            "limit :size offset :from")
+    List<Long> searchAvailableIdsByRelevance(@Param("text") String text, @Param("from") int from,
+                                             @Param("size") int size);
 
-    @Query("select i " +
+    // Фасеты поиска по базе, пока индекс не готов: строк столько, сколько сочетаний владельца и наличия запроса
+    @Query("select i.owner.id as ownerId, " +
+            "case when i.request is null then false else true end as hasRequest, count(i) as count " +
             "from Item as i " +
-            "where (lower(i.name) like lower(concat('%', ?1, '%')) or " +
-            "lower(i.description) like lower(concat('%', ?1, '%')))")
-    List<Item> search(String text);
+            "where i.available = true and " +
+            "(lower(i.name) like lower(concat('%', ?1, '%')) or " +
+            "lower(i.description) like lower(concat('%', ?1, '%'))) " +
+            "group by i.owner.id, case when i.request is null then false else true end")
+    List<ItemSearchFacetView> countFacets(String text);
+
+    @Query("select i.id as id, i.owner.id as ownerId, " +
+            "case when i.request is null then false else true end as hasRequest, " +
+            "i.name as name, i.description as description " +
+            "from Item as i " +
+            "where i.available = true")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<ItemSearchView> findAllAvailableForSearch();
+
+    @Query("select i.id as id, i.owner.id as ownerId, i.name as name, i.description as description " +
+            "from Item as i")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<ItemTermsView> findAllForFeed();
 }
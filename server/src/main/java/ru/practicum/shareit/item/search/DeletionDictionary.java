@@ -0,0 +1,209 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.*;
+
+// Словарь удалений (SymSpell) для поиска слов с опечатками. Для каждого слова хранятся варианты
+// его префикса с удалёнными символами; слова на расстоянии не больше d от запроса имеют с ним
+// общий вариант. Найденные кандидаты проверяются расстоянием Дамерау-Левенштейна (OSA).
+// Варианты хранятся 64-битными хешами в открытой адресации без создания строк и узлов HashMap.
+class DeletionDictionary {
+    static final int MAX_DISTANCE = 2;
+    static final int PREFIX_LENGTH = 7;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] words = new String[16];
+    private int wordCount;
+    private int removed;
+
+    private long[] keys = new long[1024];
+    private int[] heads = new int[1024];
+    private int keyCount;
+
+    private int[] entryWords = new int[1024];
+    private int[] entryNext = new int[1024];
+    private int entryCount;
+
+    void add(String word) {
+        if (ids.containsKey(word)) {
+            return;
+        }
+        if (wordCount == words.length) {
+            words = Arrays.copyOf(words, wordCount * 2);
+        }
+        int id = wordCount++;
+        words[id] = word;
+        ids.put(word, id);
+        for (String delete : deletes(word, MAX_DISTANCE)) {
+            link(hash(delete), id);
+        }
+    }
+
+    // Удалённое слово остаётся в таблице вариантов до перестроения и пропускается при поиске
+    void remove(String word) {
+        Integer id = ids.remove(word);
+        if (id == null) {
+            return;
+        }
+        words[id] = null;
+        removed++;
+        if (removed > 1024 && removed > ids.size()) {
+            rebuild();
+        }
+    }
+
+    int size() {
+        return ids.size();
+    }
+
+    // Слова словаря на расстоянии не больше maxDistance от запроса
+    Set<String> lookup(String query, int maxDistance) {
+        int distance = Math.min(maxDistance, MAX_DISTANCE);
+        Set<String> result = new HashSet<>();
+        if (distance == 0) {
+            if (ids.containsKey(query)) {
+                result.add(query);
+            }
+            return result;
+        }
+        Set<Integer> checked = new HashSet<>();
+        for (String delete : deletes(query, distance)) {
+            int slot = find(hash(delete));
+            if (keys[slot] == 0) {
+                continue;
+            }
+            for (int entry = heads[slot]; entry >= 0; entry = entryNext[entry]) {
+                int id = entryWords[entry];
+                String word = words[id];
+                if (word != null && checked.add(id)
+                        && Math.abs(word.length() - query.length()) <= distance
+                        && distance(query, word, distance) <= distance) {
+                    result.add(word);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Варианты префикса слова, полученные удалением не более distance символов
+    static Set<String> deletes(String word, int distance) {
+        String prefix = word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+        Set<String> deletes = new HashSet<>();
+        deletes.add(prefix);
+        List<String> level = List.of(prefix);
+        for (int d = 0; d < distance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String variant : level) {
+                for (int i = 0; i < variant.length(); i++) {
+                    String delete = variant.substring(0, i) + variant.substring(i + 1);
+                    if (deletes.add(delete)) {
+                        next.add(delete);
+                    }
+                }
+            }
+            level = next;
+        }
+        return deletes;
+    }
+
+    // Расстояние с перестановкой соседних символов; при превышении limit возвращает limit + 1
+    static int distance(String source, String target, int limit) {
+        int n = source.length();
+        int m = target.length();
+        int[] previousRow = new int[m + 1];
+        int[] row = new int[m + 1];
+        int[] twoRowsBack = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            row[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            int[] swap = previousRow;
+            previousRow = row;
+            row = twoRowsBack;
+            twoRowsBack = swap;
+            row[0] = i;
+            int rowMinimum = i;
+            for (int j = 1; j <= m; j++) {
+                int cost = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(row[j - 1] + 1, previousRow[j] + 1), previousRow[j - 1] + cost);
+                if (i > 1 && j > 1 && source.charAt(i - 1) == target.charAt(j - 2)
+                        && source.charAt(i - 2) == target.charAt(j - 1)) {
+                    value = Math.min(value, twoRowsBack[j - 2] + 1);
+                }
+                row[j] = value;
+                rowMinimum = Math.min(rowMinimum, value);
+            }
+            if (rowMinimum > limit) {
+                return limit + 1;
+            }
+        }
+        return Math.min(row[m], limit + 1);
+    }
+
+    private void link(long key, int id) {
+        if (entryCount == entryWords.length) {
+            entryWords = Arrays.copyOf(entryWords, entryCount * 2);
+            entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+        }
+        int slot = find(key);
+        int entry = entryCount++;
+        entryWords[entry] = id;
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            entryNext[entry] = -1;
+            keyCount++;
+        } else {
+            entryNext[entry] = heads[slot];
+        }
+        heads[slot] = entry;
+        if (keyCount * 4 > keys.length * 3) {
+            resize();
+        }
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldHeads = heads;
+        keys = new long[oldKeys.length * 2];
+        heads = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    private void rebuild() {
+        List<String> live = new ArrayList<>(ids.keySet());
+        ids.clear();
+        words = new String[Math.max(16, live.size())];
+        wordCount = 0;
+        removed = 0;
+        keys = new long[1024];
+        heads = new int[1024];
+        keyCount = 0;
+        entryCount = 0;
+        live.forEach(this::add);
+    }
+
+    // FNV-1a; ноль зарезервирован под пустую ячейку. Коллизии лишь добавляют кандидатов на проверку
+    private static long hash(String text) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+}
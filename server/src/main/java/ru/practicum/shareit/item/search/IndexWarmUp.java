@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Изменения, применённые к индексу в памяти во время его первоначальной загрузки.
+// Загрузчик читает снимок базы, и его строка для записи, уже изменённой после фиксации транзакции,
+// может быть устаревшей, поэтому такая строка пропускается. Методы вызываются под блокировкой индекса
+public class IndexWarmUp {
+    private final Set<Long> changed = new HashSet<>();
+    private boolean loading;
+
+    public void start() {
+        loading = true;
+        changed.clear();
+    }
+
+    public void changed(Long id) {
+        if (loading) {
+            changed.add(id);
+        }
+    }
+
+    public boolean isStale(Long id) {
+        return changed.contains(id);
+    }
+
+    public void finish() {
+        loading = false;
+        changed.clear();
+    }
+}
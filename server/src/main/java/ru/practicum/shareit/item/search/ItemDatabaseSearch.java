@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.List;
+
+// Поиск вещей средствами базы данных. Используется, пока поисковый индекс не построен
+// или если он отключён настройкой shareit.search.index.enabled=false
+public interface ItemDatabaseSearch {
+
+    List<Long> search(String text, ItemSearchSort sort, int from, int size);
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
+import ru.practicum.shareit.request.match.ItemRequestMatcher;
+
+import java.util.Collection;
+import java.util.List;
+
+// Изменения вещей попадают в поисковый индекс, словарь подсказок, ленты запросов, кеш поиска и подбор к запросам
+// только после фиксации транзакции: при откате поиск не должен видеть изменение
+@Component
+@RequiredArgsConstructor
+public class ItemIndexUpdater {
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemRequestFeed requestFeed;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemRequestMatcher requestMatcher;
+
+    // before равен null для новой вещи. Кеши сбрасываются после индекса, чтобы в них не попал старый результат
+    public void update(Item item, ItemSearchCache.Snapshot before) {
+        Long itemId = item.getId();
+        Long ownerId = item.getOwner().getId();
+        boolean hasRequest = item.getRequest() != null;
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        ItemSearchCache.Snapshot after = ItemSearchCache.Snapshot.of(item);
+        afterCommit(() -> {
+            if (available) {
+                itemSearchIndex.put(itemId, ownerId, hasRequest, name, description);
+                itemSuggestIndex.put(itemId, name);
+            } else {
+                itemSearchIndex.remove(itemId);
+                itemSuggestIndex.remove(itemId);
+            }
+            requestFeed.putItem(itemId, ownerId, name, description);
+            itemSearchCache.invalidate(before, after);
+            requestMatcher.invalidate(before, after);
+        });
+    }
+
+    // Вещи удалены в базе каскадно вместе с владельцем, тексты удалённых вещей неизвестны,
+    // поэтому кеш поиска сбрасывается целиком
+    public void removeAll(Collection<Long> itemIds) {
+        List<Long> ids = List.copyOf(itemIds);
+        if (ids.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            for (Long itemId : ids) {
+                itemSearchIndex.remove(itemId);
+                itemSuggestIndex.remove(itemId);
+                requestFeed.removeItem(itemId);
+            }
+            itemSearchCache.invalidateAll();
+            requestMatcher.invalidateAll();
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
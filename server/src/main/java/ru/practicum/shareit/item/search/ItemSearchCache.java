@@ -0,0 +1,205 @@
+package ru.practicum.shareit.item.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Кеш страниц результатов поиска: нормализованный запрос -> id найденных вещей.
+// Размер ограничен суммарным числом хранимых id, вытеснение - W-TinyLFU.
+// При изменении вещи сбрасываются только запросы, которым соответствует её старый или новый текст.
+// Ключи проиндексированы по термам запроса, поэтому изменение вещи проверяет только запросы с общими
+// термами, а не весь кеш. Ключ добавляется в индекс и удаляется из него атомарно с самой записью кеша.
+@Component
+public class ItemSearchCache implements MeterBinder {
+    private final Cache<Key, List<Long>> cache;
+    private final Map<String, Set<Key>> keysByTerm = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ItemSearchCache(@Value("${shareit.search.cache.max-weight:100000}") long maxWeight) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, List<Long> ids) -> ids.size() + 1)
+                .evictionListener((Key key, List<Long> ids, RemovalCause cause) -> unindex(key))
+                .recordStats()
+                .build();
+    }
+
+    public List<Long> get(String text, ItemSearchSort sort, boolean fuzzy, int from, int size,
+                          Supplier<List<Long>> loader) {
+        Key key = new Key(ItemSearchIndex.normalize(text), sort, fuzzy, from, size);
+        List<Long> ids = cache.getIfPresent(key);
+        if (ids != null) {
+            return ids;
+        }
+        // Результат, посчитанный одновременно с изменением вещи, может быть устаревшим и не сохраняется.
+        // Изменение, начавшееся между проверкой версии и записью, найдёт ключ в индексе либо
+        // будет замечено повторной проверкой после записи
+        long version = invalidations.get();
+        List<Long> loaded = List.copyOf(loader.get());
+        if (version == invalidations.get()) {
+            cache.asMap().compute(key, (k, old) -> {
+                index(k);
+                return loaded;
+            });
+            if (version != invalidations.get()) {
+                remove(key);
+            }
+        }
+        return loaded;
+    }
+
+    // before равен null для новой вещи. Для сортировки по id совпадение в обеих версиях не меняет результат,
+    // сдвиг оценок релевантности других вещей из-за общей статистики коллекции не учитывается
+    public void invalidate(Snapshot before, Snapshot after) {
+        if (after.equals(before)) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        Set<Key> candidates = new HashSet<>();
+        collectCandidates(before, candidates);
+        collectCandidates(after, candidates);
+        for (Key key : candidates) {
+            boolean matchedBefore = before != null && key.matches(before);
+            boolean matchedAfter = key.matches(after);
+            boolean stale = matchedBefore && matchedAfter
+                    ? key.sort() == ItemSearchSort.RELEVANCE
+                    : matchedBefore || matchedAfter;
+            if (stale) {
+                remove(key);
+            }
+        }
+    }
+
+    // Для изменений, затронувших неизвестный набор запросов
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.asMap().keySet().forEach(this::remove);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "itemSearch");
+    }
+
+    private void remove(Key key) {
+        cache.asMap().computeIfPresent(key, (k, ids) -> {
+            unindex(k);
+            return null;
+        });
+    }
+
+    private void index(Key key) {
+        for (String term : key.terms()) {
+            keysByTerm.compute(term, (t, keys) -> {
+                Set<Key> result = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+                result.add(key);
+                return result;
+            });
+        }
+    }
+
+    private void unindex(Key key) {
+        for (String term : key.terms()) {
+            keysByTerm.computeIfPresent(term, (t, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    // Запросы, которым может соответствовать вещь; точное совпадение проверяет Key.matches
+    private void collectCandidates(Snapshot item, Set<Key> candidates) {
+        if (item == null || !item.available()) {
+            return;
+        }
+        for (String term : Key.terms(item)) {
+            Set<Key> keys = keysByTerm.get(term);
+            if (keys != null) {
+                candidates.addAll(keys);
+            }
+        }
+    }
+
+    // Поля вещи, от которых зависят результаты поиска
+    public record Snapshot(String name, String description, boolean available) {
+
+        public static Snapshot of(Item item) {
+            return new Snapshot(ItemSearchIndex.normalize(item.getName()),
+                    ItemSearchIndex.normalize(item.getDescription()), Boolean.TRUE.equals(item.getAvailable()));
+        }
+    }
+
+    private record Key(String query, ItemSearchSort sort, boolean fuzzy, int from, int size) {
+        private static final String NO_TOKENS = "";
+
+        // Подстрочный запрос индексируется первой триграммой (или целиком, если короче): она входит в
+        // любой содержащий запрос текст. Нечёткий запрос индексируется вариантами удалений первого слова,
+        // общими с любым похожим словом вещи. Запрос без слов подходит любой доступной вещи.
+        Set<String> terms() {
+            if (!fuzzy) {
+                return Set.of(query.substring(0, Math.min(query.length(), ItemSearchIndex.GRAM_LENGTH)));
+            }
+            List<String> tokens = ItemSearchIndex.tokenize(query);
+            if (tokens.isEmpty()) {
+                return Set.of(NO_TOKENS);
+            }
+            String first = tokens.get(0);
+            return DeletionDictionary.deletes(first, ItemSearchIndex.fuzzyDistance(first));
+        }
+
+        // Термы вещи: подстроки длиной до триграммы и варианты удалений каждого слова
+        static Set<String> terms(Snapshot item) {
+            Set<String> terms = new HashSet<>();
+            terms.add(NO_TOKENS);
+            for (String text : List.of(item.name(), item.description())) {
+                for (int i = 0; i < text.length(); i++) {
+                    for (int length = 1; length <= ItemSearchIndex.GRAM_LENGTH && i + length <= text.length();
+                         length++) {
+                        terms.add(text.substring(i, i + length));
+                    }
+                }
+                for (String token : ItemSearchIndex.tokenize(text)) {
+                    terms.addAll(DeletionDictionary.deletes(token, DeletionDictionary.MAX_DISTANCE));
+                }
+            }
+            return terms;
+        }
+
+        boolean matches(Snapshot item) {
+            if (!item.available()) {
+                return false;
+            }
+            if (!fuzzy) {
+                return item.name().contains(query) || item.description().contains(query);
+            }
+            List<String> itemTokens = ItemSearchIndex.tokenize(item.name());
+            itemTokens.addAll(ItemSearchIndex.tokenize(item.description()));
+            return ItemSearchIndex.tokenize(query).stream()
+                    .allMatch(queryToken -> similar(queryToken, itemTokens));
+        }
+
+        private static boolean similar(String queryToken, List<String> itemTokens) {
+            int limit = ItemSearchIndex.fuzzyDistance(queryToken);
+            return itemTokens.stream()
+                    .anyMatch(token -> DeletionDictionary.distance(queryToken, token, limit) <= limit);
+        }
+    }
+}
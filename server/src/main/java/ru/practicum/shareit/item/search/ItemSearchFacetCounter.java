@@ -0,0 +1,38 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Счётчики фасетов по всем найденным вещам, а не только по возвращаемой странице
+public class ItemSearchFacetCounter {
+    private final Map<Long, Long> owners = new HashMap<>();
+    private long total;
+    private long withRequest;
+
+    public void add(Long ownerId, boolean hasRequest, long count) {
+        total += count;
+        if (hasRequest) {
+            withRequest += count;
+        }
+        owners.merge(ownerId, count, Long::sum);
+    }
+
+    // Владельцы с наибольшим числом найденных вещей, при равенстве - по возрастанию id
+    public ItemSearchFacetsDto toDto(int topOwners) {
+        List<ItemSearchFacetsDto.OwnerCount> top = owners.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(topOwners)
+                .map(owner -> new ItemSearchFacetsDto.OwnerCount(owner.getKey(), owner.getValue()))
+                .toList();
+        return ItemSearchFacetsDto.builder()
+                .total(total)
+                .withRequest(withRequest)
+                .withoutRequest(total - withRequest)
+                .owners(top)
+                .build();
+    }
+}
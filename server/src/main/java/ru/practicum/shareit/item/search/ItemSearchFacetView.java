@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.search;
+
+// Строка группировки найденных вещей: число вещей владельца с наличием или без запроса
+public interface ItemSearchFacetView {
+
+    Long getOwnerId();
+
+    Boolean getHasRequest();
+
+    Long getCount();
+}
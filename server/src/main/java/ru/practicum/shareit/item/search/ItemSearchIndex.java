@@ -0,0 +1,503 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+// Инвертированный индекс по названию и описанию доступных для бронирования вещей.
+// Поиск сохраняет семантику подстроки (как lower(...) like %text%): индекс сужает
+// множество кандидатов, после чего совпадение проверяется по тексту вещи.
+@Component
+public class ItemSearchIndex {
+    static final int GRAM_LENGTH = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_BOOST = 2.0;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final long[] EMPTY = new long[0];
+
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, PostingList> tokens = new HashMap<>();
+    private final Map<String, PostingList> trigrams = new HashMap<>();
+    private final DeletionDictionary vocabulary = new DeletionDictionary();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IndexWarmUp warmUp = new IndexWarmUp();
+    private long nameLengthTotal;
+    private long descriptionLengthTotal;
+    private volatile boolean ready;
+
+    // Индекс готов к поиску после первоначальной загрузки вещей из базы
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void startLoad() {
+        lock.writeLock().lock();
+        try {
+            warmUp.start();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void markReady() {
+        lock.writeLock().lock();
+        try {
+            warmUp.finish();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Item item) {
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            put(item.getId(), item.getOwner().getId(), item.getRequest() != null, item.getName(),
+                    item.getDescription());
+        } else {
+            remove(item.getId());
+        }
+    }
+
+    public void put(Long id, Long ownerId, boolean hasRequest, String name, String description) {
+        Document document = Document.of(ownerId, hasRequest, normalize(name), normalize(description));
+        lock.writeLock().lock();
+        try {
+            warmUp.changed(id);
+            putDocument(id, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Строка загрузчика не перезаписывает вещь, изменённую после начала загрузки
+    public void load(Long id, Long ownerId, boolean hasRequest, String name, String description) {
+        Document document = Document.of(ownerId, hasRequest, normalize(name), normalize(description));
+        lock.writeLock().lock();
+        try {
+            if (!warmUp.isStale(id)) {
+                putDocument(id, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            warmUp.changed(id);
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> search(String text) {
+        return search(text, ItemSearchSort.ID, 0, Integer.MAX_VALUE);
+    }
+
+    public List<Long> search(String text, ItemSearchSort sort, int from, int size) {
+        return search(text, sort, from, size, null);
+    }
+
+    // Возвращает страницу id доступных вещей, содержащих text, в заданном порядке.
+    // Если передан facets, в него за тот же проход по кандидатам считаются все найденные вещи
+    public List<Long> search(String text, ItemSearchSort sort, int from, int size, ItemSearchFacetCounter facets) {
+        String query = normalize(text);
+        lock.readLock().lock();
+        try {
+            long[] candidates = query.length() >= GRAM_LENGTH ? trigramCandidates(query) : tokenCandidates(query);
+            Predicate<Document> filter = document -> document.contains(query);
+            if (facets != null) {
+                candidates = count(candidates, filter, facets);
+                filter = document -> true;
+            }
+            if (sort == ItemSearchSort.RELEVANCE) {
+                List<Predicate<String>> matchers = tokenize(query).stream()
+                        .<Predicate<String>>map(queryToken -> token -> token.contains(queryToken))
+                        .toList();
+                return topByRelevance(candidates, filter, matchers, from, size);
+            }
+            return firstById(candidates, filter, from, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Поиск с опечатками: каждое слово запроса должно совпасть со словом вещи
+    // с точностью до fuzzyDistance правок (вставка, удаление, замена, перестановка соседних символов)
+    public List<Long> fuzzySearch(String text, ItemSearchSort sort, int from, int size) {
+        return fuzzySearch(text, sort, from, size, null);
+    }
+
+    public List<Long> fuzzySearch(String text, ItemSearchSort sort, int from, int size,
+                                  ItemSearchFacetCounter facets) {
+        List<String> queryTokens = tokenize(normalize(text));
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Set<String>> expansions = new ArrayList<>(queryTokens.size());
+            long[] candidates = null;
+            for (String queryToken : queryTokens) {
+                Set<String> similar = vocabulary.lookup(queryToken, fuzzyDistance(queryToken));
+                long[] ids = union(similar);
+                candidates = candidates == null ? ids : intersect(candidates, ids);
+                if (candidates.length == 0) {
+                    return List.of();
+                }
+                expansions.add(similar);
+            }
+            if (facets != null) {
+                count(candidates, document -> true, facets);
+            }
+            if (sort == ItemSearchSort.RELEVANCE) {
+                List<Predicate<String>> matchers = expansions.stream()
+                        .<Predicate<String>>map(similar -> similar::contains)
+                        .toList();
+                return topByRelevance(candidates, document -> true, matchers, from, size);
+            }
+            return firstById(candidates, document -> true, from, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Подбор вещей к тексту запроса на вещь: кандидаты - вещи, в которых встречается хотя бы одно его слово,
+    // порядок - по BM25 совпавших слов
+    public List<Long> match(String text, int limit) {
+        Set<String> queryTokens = terms(text);
+        lock.readLock().lock();
+        try {
+            queryTokens.retainAll(tokens.keySet());
+            if (queryTokens.isEmpty()) {
+                return List.of();
+            }
+            List<Predicate<String>> matchers = queryTokens.stream()
+                    .<Predicate<String>>map(queryToken -> queryToken::equals)
+                    .toList();
+            return topByRelevance(union(queryTokens), document -> true, matchers, 0, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Короткие слова допускают меньше правок, иначе почти любое слово становится похожим
+    static int fuzzyDistance(String token) {
+        if (token.length() <= 2) {
+            return 0;
+        }
+        return token.length() <= 5 ? 1 : DeletionDictionary.MAX_DISTANCE;
+    }
+
+    // Оставляет подходящих кандидатов и учитывает каждого в фасетах
+    private long[] count(long[] candidates, Predicate<Document> filter, ItemSearchFacetCounter facets) {
+        long[] result = new long[candidates.length];
+        int size = 0;
+        for (long id : candidates) {
+            Document document = documents.get(id);
+            if (filter.test(document)) {
+                facets.add(document.ownerId(), document.hasRequest(), 1);
+                result[size++] = id;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    // Кандидаты уже упорядочены по id, поэтому проверка останавливается на последнем элементе страницы
+    private List<Long> firstById(long[] candidates, Predicate<Document> filter, int from, int size) {
+        List<Long> result = new ArrayList<>(Math.min(size, candidates.length));
+        int skipped = 0;
+        for (int i = 0; i < candidates.length && result.size() < size; i++) {
+            if (filter.test(documents.get(candidates[i]))) {
+                if (skipped < from) {
+                    skipped++;
+                } else {
+                    result.add(candidates[i]);
+                }
+            }
+        }
+        return result;
+    }
+
+    // В куче хранятся только from + size лучших результатов, в вершине - худший из них
+    private List<Long> topByRelevance(long[] candidates, Predicate<Document> filter,
+                                      List<Predicate<String>> matchers, int from, int size) {
+        int limit = (int) Math.min((long) from + size, Integer.MAX_VALUE);
+        Comparator<ScoredId> worstFirst = Comparator.comparingDouble(ScoredId::score)
+                .thenComparing(ScoredId::id, Comparator.reverseOrder());
+        PriorityQueue<ScoredId> heap = new PriorityQueue<>(Math.min(limit, candidates.length) + 1, worstFirst);
+        for (long id : candidates) {
+            Document document = documents.get(id);
+            if (filter.test(document)) {
+                heap.add(new ScoredId(id, score(document, matchers)));
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+        }
+        List<ScoredId> top = new ArrayList<>(heap);
+        top.sort(worstFirst.reversed());
+        return top.stream()
+                .skip(from)
+                .map(ScoredId::id)
+                .toList();
+    }
+
+    // BM25 по полям: токен вещи учитывается, если подходит под слово запроса
+    // (содержит его или похож на него), документная частота токена - размер его списка в индексе
+    private double score(Document document, List<Predicate<String>> matchers) {
+        int count = documents.size();
+        double nameAverage = Math.max(1.0, (double) nameLengthTotal / count);
+        double descriptionAverage = Math.max(1.0, (double) descriptionLengthTotal / count);
+        return NAME_BOOST * fieldScore(document.name(), document.nameLength(), nameAverage, matchers, count)
+                + fieldScore(document.description(), document.descriptionLength(), descriptionAverage,
+                matchers, count);
+    }
+
+    private double fieldScore(String field, int length, double averageLength, List<Predicate<String>> matchers,
+                              int count) {
+        if (length == 0 || matchers.isEmpty()) {
+            return 0;
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokenize(field)) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        double norm = K1 * (1 - B + B * length / averageLength);
+        double score = 0;
+        for (Predicate<String> matcher : matchers) {
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                if (matcher.test(entry.getKey())) {
+                    int documentFrequency = tokens.get(entry.getKey()).size();
+                    double idf = Math.log(1 + (count - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                    int frequency = entry.getValue();
+                    score += idf * frequency * (K1 + 1) / (frequency + norm);
+                }
+            }
+        }
+        return score;
+    }
+
+    // Вещь может содержать запрос, только если в ней встречаются все его триграммы
+    private long[] trigramCandidates(String query) {
+        List<PostingList> lists = new ArrayList<>();
+        for (String trigram : grams(query)) {
+            PostingList list = trigrams.get(trigram);
+            if (list == null) {
+                return EMPTY;
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        long[] result = lists.getFirst().toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    // Запросы короче триграммы: токен запроса, окружённый разделителями, должен совпасть
+    // с токеном вещи целиком, крайние токены могут быть окончанием или началом слова
+    private long[] tokenCandidates(String query) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return documents.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+        boolean openStart = Character.isLetterOrDigit(query.codePointAt(0));
+        boolean openEnd = Character.isLetterOrDigit(query.codePointBefore(query.length()));
+        long[] result = null;
+        for (int i = 0; i < queryTokens.size(); i++) {
+            boolean first = i == 0 && openStart;
+            boolean last = i == queryTokens.size() - 1 && openEnd;
+            long[] ids = lookup(queryTokens.get(i), first, last);
+            result = result == null ? ids : intersect(result, ids);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private long[] lookup(String queryToken, boolean first, boolean last) {
+        if (!first && !last) {
+            PostingList list = tokens.get(queryToken);
+            return list == null ? EMPTY : list.toArray();
+        }
+        BiPredicate<String, String> matcher;
+        if (first && last) {
+            matcher = String::contains;
+        } else if (first) {
+            matcher = String::endsWith;
+        } else {
+            matcher = String::startsWith;
+        }
+        LongStream.Builder ids = LongStream.builder();
+        for (Map.Entry<String, PostingList> entry : tokens.entrySet()) {
+            if (matcher.test(entry.getKey(), queryToken)) {
+                for (long id : entry.getValue().toArray()) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids.build().sorted().distinct().toArray();
+    }
+
+    private long[] union(Set<String> keys) {
+        LongStream.Builder ids = LongStream.builder();
+        for (String key : keys) {
+            for (long id : tokens.get(key).toArray()) {
+                ids.add(id);
+            }
+        }
+        return ids.build().sorted().distinct().toArray();
+    }
+
+    private static long[] intersect(long[] left, PostingList right) {
+        long[] result = new long[left.length];
+        int size = 0;
+        for (long id : left) {
+            if (right.contains(id)) {
+                result[size++] = id;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static void addPostings(Map<String, PostingList> postings, Set<String> keys, long id) {
+        for (String key : keys) {
+            postings.computeIfAbsent(key, k -> new PostingList()).add(id);
+        }
+    }
+
+    // Возвращает ключи, по которым не осталось ни одной вещи
+    private static List<String> removePostings(Map<String, PostingList> postings, Set<String> keys, long id) {
+        List<String> emptied = new ArrayList<>();
+        for (String key : keys) {
+            PostingList list = postings.get(key);
+            list.remove(id);
+            if (list.isEmpty()) {
+                postings.remove(key);
+                emptied.add(key);
+            }
+        }
+        return emptied;
+    }
+
+    private void putDocument(Long id, Document document) {
+        removeDocument(id);
+        documents.put(id, document);
+        nameLengthTotal += document.nameLength();
+        descriptionLengthTotal += document.descriptionLength();
+        Set<String> documentTokens = document.tokens();
+        addPostings(tokens, documentTokens, id);
+        documentTokens.forEach(vocabulary::add);
+        addPostings(trigrams, document.trigrams(), id);
+    }
+
+    private void removeDocument(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        removePostings(tokens, document.tokens(), id).forEach(vocabulary::remove);
+        removePostings(trigrams, document.trigrams(), id);
+        nameLengthTotal -= document.nameLength();
+        descriptionLengthTotal -= document.descriptionLength();
+    }
+
+    // Значимые слова текста для сопоставления запросов и вещей: слова короче триграммы (предлоги, союзы) отбрасываются
+    public static Set<String> terms(String text) {
+        Set<String> terms = new HashSet<>(tokenize(normalize(text)));
+        terms.removeIf(token -> token.length() < GRAM_LENGTH);
+        return terms;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private record ScoredId(long id, double score) {
+    }
+
+    private record Document(Long ownerId, boolean hasRequest, String name, String description, int nameLength,
+                            int descriptionLength) {
+
+        static Document of(Long ownerId, boolean hasRequest, String name, String description) {
+            return new Document(ownerId, hasRequest, name, description, tokenize(name).size(),
+                    tokenize(description).size());
+        }
+
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        Set<String> tokens() {
+            Set<String> tokens = new HashSet<>(tokenize(name));
+            tokens.addAll(tokenize(description));
+            return tokens;
+        }
+
+        // Триграммы строятся по каждому полю отдельно, чтобы не совпадать на их стыке
+        Set<String> trigrams() {
+            Set<String> trigrams = grams(name);
+            trigrams.addAll(grams(description));
+            return trigrams;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.stream.Stream;
+
+// Построение поискового индекса и словаря подсказок из таблицы items при старте приложения
+@Component
+@Slf4j
+public class ItemSearchIndexLoader {
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final boolean enabled;
+
+    public ItemSearchIndexLoader(ItemRepository itemRepository, ItemSearchIndex itemSearchIndex,
+                                 ItemSuggestIndex itemSuggestIndex,
+                                 @Value("${shareit.search.index.enabled:true}") boolean enabled) {
+        this.itemRepository = itemRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemSuggestIndex = itemSuggestIndex;
+        this.enabled = enabled;
+    }
+
+    // До окончания загрузки поиск выполняется средствами базы данных
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (!enabled) {
+            log.info("Поисковый индекс отключён, поиск выполняется средствами базы данных");
+            return;
+        }
+        // Изменения, зафиксированные во время загрузки, применяются сразу и не перезаписываются строками загрузчика
+        itemSearchIndex.startLoad();
+        itemSuggestIndex.startLoad();
+        try (Stream<ItemSearchView> items = itemRepository.findAllAvailableForSearch()) {
+            items.forEach(item -> {
+                itemSearchIndex.load(item.getId(), item.getOwnerId(), item.getHasRequest(), item.getName(),
+                        item.getDescription());
+                itemSuggestIndex.load(item.getId(), item.getName());
+            });
+        }
+        itemSuggestIndex.finishLoad();
+        itemSearchIndex.markReady();
+        log.info("Поисковый индекс построен, проиндексировано вещей: {}", itemSearchIndex.size());
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+public enum ItemSearchSort {
+    ID, // по возрастанию id вещи
+    RELEVANCE; // по убыванию релевантности BM25, совпадения в названии весомее
+
+    public static ItemSearchSort from(String sort) {
+        return Arrays.stream(ItemSearchSort.values())
+                .filter(value -> value.name().equalsIgnoreCase(sort))
+                .findFirst()
+                .orElse(null);
+    }
+}
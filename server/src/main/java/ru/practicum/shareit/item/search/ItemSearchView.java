@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.search;
+
+// Проекция вещи с полями, необходимыми для построения поискового индекса
+public interface ItemSearchView {
+
+    Long getId();
+
+    Long getOwnerId();
+
+    Boolean getHasRequest();
+
+    String getName();
+
+    String getDescription();
+}
@@ -0,0 +1,183 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Префиксное дерево слов из названий доступных вещей для автодополнения.
+// Каждый узел хранит TOP_SIZE самых частых слов своего поддерева, поэтому подсказка
+// стоит O(длина префикса). Списки пересчитываются только на пути изменившегося слова.
+@Component
+public class ItemSuggestIndex {
+    static final int TOP_SIZE = 10;
+
+    private final Node root = new Node();
+    private final Map<String, Integer> counts = new HashMap<>();
+    private final Map<Long, Set<String>> itemTokens = new HashMap<>();
+    private final Comparator<String> byCount = Comparator.<String>comparingInt(counts::get).reversed()
+            .thenComparing(Comparator.naturalOrder());
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IndexWarmUp warmUp = new IndexWarmUp();
+
+    public void index(Item item) {
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            put(item.getId(), item.getName());
+        } else {
+            remove(item.getId());
+        }
+    }
+
+    public void startLoad() {
+        lock.writeLock().lock();
+        try {
+            warmUp.start();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void finishLoad() {
+        lock.writeLock().lock();
+        try {
+            warmUp.finish();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Long id, String name) {
+        Set<String> tokens = new HashSet<>(ItemSearchIndex.tokenize(ItemSearchIndex.normalize(name)));
+        lock.writeLock().lock();
+        try {
+            warmUp.changed(id);
+            putTokens(id, tokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Строка загрузчика не перезаписывает вещь, изменённую после начала загрузки
+    public void load(Long id, String name) {
+        Set<String> tokens = new HashSet<>(ItemSearchIndex.tokenize(ItemSearchIndex.normalize(name)));
+        lock.writeLock().lock();
+        try {
+            if (!warmUp.isStale(id)) {
+                putTokens(id, tokens);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            warmUp.changed(id);
+            Set<String> previous = itemTokens.remove(id);
+            if (previous != null) {
+                previous.forEach(token -> change(token, -1));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Дополняет последнее слово префикса, предшествующий текст сохраняется
+    public List<String> suggest(String prefix, int size) {
+        String text = ItemSearchIndex.normalize(prefix).stripLeading();
+        int start = text.length();
+        while (start > 0 && Character.isLetterOrDigit(text.charAt(start - 1))) {
+            start--;
+        }
+        if (start == text.length()) {
+            return List.of();
+        }
+        String head = text.substring(0, start);
+        String word = text.substring(start);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < word.length() && node != null; i++) {
+                node = node.children.get(word.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            return node.top.stream()
+                    .limit(size)
+                    .map(completion -> head + completion)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putTokens(Long id, Set<String> tokens) {
+        Set<String> previous = itemTokens.put(id, tokens);
+        if (previous != null) {
+            previous.stream()
+                    .filter(token -> !tokens.contains(token))
+                    .forEach(token -> change(token, -1));
+            tokens.stream()
+                    .filter(token -> !previous.contains(token))
+                    .forEach(token -> change(token, 1));
+        } else {
+            tokens.forEach(token -> change(token, 1));
+        }
+    }
+
+    private void change(String token, int delta) {
+        int count = counts.merge(token, delta, Integer::sum);
+        if (count <= 0) {
+            counts.remove(token);
+        }
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        path.push(node);
+        for (int i = 0; i < token.length(); i++) {
+            node = node.children.computeIfAbsent(token.charAt(i), key -> new Node());
+            path.push(node);
+        }
+        node.word = count > 0 ? token : null;
+        // Пересчёт от листа к корню: топ узла складывается из его слова и топов детей
+        Node child = null;
+        char key = 0;
+        int depth = token.length();
+        while (!path.isEmpty()) {
+            Node current = path.pop();
+            if (child != null && child.word == null && child.children.isEmpty()) {
+                current.children.remove(key);
+            }
+            current.top = top(current);
+            child = current;
+            depth--;
+            if (depth >= 0) {
+                key = token.charAt(depth);
+            }
+        }
+    }
+
+    private List<String> top(Node node) {
+        PriorityQueue<String> candidates = new PriorityQueue<>(byCount);
+        if (node.word != null) {
+            candidates.add(node.word);
+        }
+        for (Node child : node.children.values()) {
+            candidates.addAll(child.top);
+        }
+        List<String> top = new ArrayList<>(Math.min(TOP_SIZE, candidates.size()));
+        while (!candidates.isEmpty() && top.size() < TOP_SIZE) {
+            top.add(candidates.poll());
+        }
+        return top;
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private String word;
+        private List<String> top = List.of();
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+// Поиск по подстроке через like с той же семантикой, что у индекса в памяти, на любой базе.
+// В PostgreSQL условие обслуживают триграммные GIN-индексы из schema-postgresql.sql
+@Component
+@RequiredArgsConstructor
+public class LikeItemSearch implements ItemDatabaseSearch {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Long> search(String text, ItemSearchSort sort, int from, int size) {
+        if (sort == ItemSearchSort.RELEVANCE) {
+            return itemRepository.searchAvailableIdsByRelevance(text, from, size);
+        }
+        return itemRepository.searchAvailableIds(text, from, size);
+    }
+}
@@ -3,10 +3,16 @@ package ru.practicum.shareit.item.service;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentDtoOut;
+import ru.practicum.shareit.item.dto.FreeIntervalDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public interface ItemService {
@@ -19,9 +25,19 @@ public interface ItemService {
 
     Collection<ItemDtoOut> getUsersItems(Long userId, int from, int size);
 
-    Collection<ItemDtoOut> findItemsOnText(String text);
+    Collection<ItemDtoOut> findItemsOnText(String text, String sort, boolean fuzzy, int from, int size);
+
+    void streamItemsOnText(String text, String sort, boolean fuzzy, Consumer<? super ItemDtoOut> consumer);
+
+    ItemSearchResultDto findItemsWithFacets(String text, String sort, boolean fuzzy, int from, int size);
+
+    List<String> suggest(String prefix, int size);
+
+    List<FreeIntervalDto> findAvailability(Long itemId, LocalDateTime from, LocalDateTime to, boolean includeWaiting);
 
     CommentDtoOut createComment(Long userId, CommentDto commentDto, Long itemId);
+
+    List<CommentDtoOut> getComments(Long itemId, KeysetCursor after, int size);
 }
 
 
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.item.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -13,11 +15,23 @@ import ru.practicum.shareit.booking.dto.BookingDtoOut;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.availability.ItemAvailabilityCache;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.owner.ItemBookingView;
+import ru.practicum.shareit.item.owner.ItemOwnerView;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemDatabaseSearch;
+import ru.practicum.shareit.item.search.ItemIndexUpdater;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchFacetCounter;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchSort;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -27,8 +41,12 @@ import ru.practicum.shareit.user.service.UserService;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.groupingBy;
@@ -38,21 +56,42 @@ import static java.util.stream.Collectors.toList;
 @Slf4j
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final int STREAM_CHUNK_SIZE = 500;
+    private static final int TOP_OWNERS = 10;
+    // В карточку и список вещей попадают только последние комментарии, остальные читаются по курсору
+    private static final int EMBEDDED_COMMENTS = 10;
     private final ItemRepository itemRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
     private final UserService userService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemDatabaseSearch itemDatabaseSearch;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemAvailabilityCache itemAvailabilityCache;
+    private final ItemIndexUpdater itemIndexUpdater;
+    private final EntityManager entityManager;
 
     @Autowired
     public ItemServiceImpl(ItemRepository itemRepository, ItemRequestRepository itemRequestRepository,
                            CommentRepository commentRepository, BookingRepository bookingRepository,
-                           UserService userService) {
+                           UserService userService, ItemSearchIndex itemSearchIndex,
+                           ItemDatabaseSearch itemDatabaseSearch, ItemSuggestIndex itemSuggestIndex,
+                           ItemSearchCache itemSearchCache, ItemAvailabilityCache itemAvailabilityCache,
+                           ItemIndexUpdater itemIndexUpdater, EntityManager entityManager) {
         this.itemRepository = itemRepository;
         this.itemRequestRepository = itemRequestRepository;
         this.commentRepository = commentRepository;
         this.bookingRepository = bookingRepository;
         this.userService = userService;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemDatabaseSearch = itemDatabaseSearch;
+        this.itemSuggestIndex = itemSuggestIndex;
+        this.itemSearchCache = itemSearchCache;
+        this.itemAvailabilityCache = itemAvailabilityCache;
+        this.itemIndexUpdater = itemIndexUpdater;
+        this.entityManager = entityManager;
     }
 
     @Override
@@ -66,13 +105,14 @@ public class ItemServiceImpl implements ItemService {
         }
         log.info("Вещь {} успешно добавлена", item);
         item = itemRepository.save(item);
+        itemIndexUpdater.update(item, null);
         return ItemMapper.toItemDtoOut(item);
     }
 
     @Override
     @Transactional
     public ItemDtoOut update(Long userId, Long itemId, ItemDto itemDto) {
-        UserDto userDto = userService.findById(userId);
+        checkUser(userId);
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> {
                             return new NotFoundException("Вещь с " + itemId + " не найдена");
@@ -81,6 +121,7 @@ public class ItemServiceImpl implements ItemService {
         if (!item.getOwner().getId().equals(userId)) {
             throw new NotFoundException("Пользователь с id = " + userId + " не является собственником вещи " + item);
         }
+        ItemSearchCache.Snapshot before = ItemSearchCache.Snapshot.of(item);
         Boolean isAvailable = itemDto.getAvailable();
         if (isAvailable != null) {
             item.setAvailable(isAvailable);
@@ -94,6 +135,7 @@ public class ItemServiceImpl implements ItemService {
             item.setName(name);
         }
         itemRepository.save(item);
+        itemIndexUpdater.update(item, before);
         log.info("Вещь {} успешно обновлёна", item.getName());
         return ItemMapper.toItemDtoOut(item);
     }
@@ -107,71 +149,197 @@ public class ItemServiceImpl implements ItemService {
                 );
         log.info("Вещь с id = {} найдена", itemId);
         // Получение комментариев для любого пользователя
-        List<CommentDtoOut> comments = getAllItemComments(itemId);
+        List<CommentDtoOut> comments = getCommentPage(itemId, null, EMBEDDED_COMMENTS);
         if (!item.getOwner().getId().equals(userId)) {
             return ItemMapper.toItemDtoOut(item, null, null, comments);
         }
         // Получение бронирований только для хозяина вещи
-        List<Booking> bookings = bookingRepository.findAllByItemAndStatusOrderByStartAsc(item, BookingStatus.APPROVED);
-        List<BookingDtoOut> bookingDTOList = bookings
-                .stream()
-                .map(BookingMapper::toBookingOut)
-                .collect(Collectors.toList());
-        BookingDtoOut lastBooking = getLastBooking(bookingDTOList, LocalDateTime.now());
-        BookingDtoOut nextBooking = getNextBooking(bookingDTOList, LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIdList = List.of(itemId);
+        BookingDtoOut lastBooking = getLastBookings(itemIdList, now).get(itemId);
+        BookingDtoOut nextBooking = getNextBookings(itemIdList, now).get(itemId);
         return ItemMapper.toItemDtoOut(item, lastBooking, nextBooking, comments);
     }
 
     @Override
     public List<ItemDtoOut> getUsersItems(Long userId, int from, int size) {
-        UserDto owner = userService.findById(userId);
-        Pageable pageable = PageRequest.of(from / size, size);
-        List<Item> itemList = itemRepository.findAllByOwnerId(userId, pageable);
+        checkUser(userId);
+        Pageable pageable = OffsetPageRequest.of(from, size);
+        // Вещи, комментарии и соседние бронирования читаются проекциями: по запросу на каждую часть страницы
+        List<ItemOwnerView> itemList = itemRepository.findViewsByOwnerId(userId, pageable);
         if (itemList.isEmpty()) {
             log.warn("Вещи у пользователя отсутствуют");
+            return new ArrayList<>();
         }
-        List<Long> itemIdList = itemList.stream()
-                .map(Item::getId)
-                .collect(Collectors.toList());
-        Map<Long, List<CommentDtoOut>> comments = commentRepository.findAllByItemIdIn(itemIdList)
+        Map<Long, ItemDtoOut> items = itemList.stream()
+                .collect(Collectors.toMap(ItemOwnerView::getId, ItemMapper::toItemDtoOut));
+        Map<Long, List<CommentDtoOut>> comments = commentRepository.findLatestViewsByItemIdIn(items.keySet(),
+                        EMBEDDED_COMMENTS)
                 .stream()
                 .map(CommentMapper::toCommentDtoOut)
                 .collect(groupingBy(CommentDtoOut::getItemId, toList()));
-
-        Map<Long, List<BookingDtoOut>> bookings = bookingRepository.findAllByItemInAndStatusOrderByStartAsc(itemList,
-                        BookingStatus.APPROVED)
-                .stream()
-                .map(BookingMapper::toBookingOut)
-                .collect(groupingBy(BookingDtoOut::getItemId, toList()));
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingDtoOut> lastBookings = new HashMap<>();
+        Map<Long, BookingDtoOut> nextBookings = new HashMap<>();
+        for (ItemBookingView booking : bookingRepository.findNeighbourViews(items.keySet(), BookingStatus.APPROVED,
+                now)) {
+            BookingDtoOut bookingDtoOut = BookingMapper.toBookingOut(booking, items.get(booking.getItemId()));
+            (booking.getStart().isBefore(now) ? lastBookings : nextBookings)
+                    .putIfAbsent(booking.getItemId(), bookingDtoOut);
+        }
         return itemList
                 .stream()
                 .map(item -> ItemMapper.toItemDtoOut(
                         item,
-                        getLastBooking(bookings.get(item.getId()), LocalDateTime.now()),
-                        getNextBooking(bookings.get(item.getId()), LocalDateTime.now()),
+                        lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId()),
                         comments.get(item.getId())
-
                 ))
                 .collect(toList());
     }
 
     @Override
-    public Collection<ItemDtoOut> findItemsOnText(String text) {
+    public Collection<ItemDtoOut> findItemsOnText(String text, String sort, boolean fuzzy, int from, int size) {
+        ItemSearchSort searchSort = validSort(sort);
         if (text.isBlank()) {
             return new ArrayList<>();
         }
-        Collection<Item> itemList = itemRepository.search(text);
-        return itemList.stream()
-                .filter(item -> item.getAvailable())
+        // Пока индекс загружается, поиск идёт по базе и его результаты не кешируются
+        List<Long> itemIds = itemSearchIndex.isReady()
+                ? itemSearchCache.get(text, searchSort, fuzzy, from, size,
+                        () -> searchIds(text, searchSort, fuzzy, from, size))
+                : itemDatabaseSearch.search(text, searchSort, from, size);
+        if (itemIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return findAllInOrder(itemIds).stream()
                 .map(ItemMapper::toItemDtoOut)
                 .collect(toList());
     }
 
+    // Все найденные вещи без постраничного разбиения: в памяти держится только список id,
+    // сами вещи загружаются порциями и отсоединяются после записи
+    @Override
+    public void streamItemsOnText(String text, String sort, boolean fuzzy, Consumer<? super ItemDtoOut> consumer) {
+        ItemSearchSort searchSort = validSort(sort);
+        if (text.isBlank()) {
+            return;
+        }
+        List<Long> itemIds = searchIds(text, searchSort, fuzzy && itemSearchIndex.isReady(), 0, Integer.MAX_VALUE);
+        for (int start = 0; start < itemIds.size(); start += STREAM_CHUNK_SIZE) {
+            List<Long> chunk = itemIds.subList(start, Math.min(start + STREAM_CHUNK_SIZE, itemIds.size()));
+            findAllInOrder(chunk).forEach(item -> consumer.accept(ItemMapper.toItemDtoOut(item)));
+            entityManager.clear();
+        }
+    }
+
+    // Индекс содержит только доступные вещи, из базы загружаются лишь найденные строки.
+    // Поиск с опечатками выполняется только по индексу, до его готовности ищется точное совпадение
+    private List<Long> searchIds(String text, ItemSearchSort sort, boolean fuzzy, int from, int size) {
+        if (!itemSearchIndex.isReady()) {
+            return itemDatabaseSearch.search(text, sort, from, size);
+        }
+        return fuzzy
+                ? itemSearchIndex.fuzzySearch(text, sort, from, size)
+                : itemSearchIndex.search(text, sort, from, size);
+    }
+
+    private List<Item> findAllInOrder(List<Long> itemIds) {
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return itemIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(toList());
+    }
+
+    private ItemSearchSort validSort(String sort) {
+        ItemSearchSort searchSort = ItemSearchSort.from(sort);
+        if (searchSort == null) {
+            throw new ValidationException("Неизвестный вид сортировки: " + sort);
+        }
+        return searchSort;
+    }
+
+    // Фасеты считаются по всем найденным вещам тем же проходом индекса, что и страница.
+    // Результат с фасетами не кешируется: кеш хранит только страницы id
+    @Override
+    public ItemSearchResultDto findItemsWithFacets(String text, String sort, boolean fuzzy, int from, int size) {
+        ItemSearchSort searchSort = validSort(sort);
+        ItemSearchFacetCounter facets = new ItemSearchFacetCounter();
+        if (text.isBlank()) {
+            return new ItemSearchResultDto(new ArrayList<>(), facets.toDto(TOP_OWNERS));
+        }
+        List<Long> itemIds;
+        if (!itemSearchIndex.isReady()) {
+            itemIds = itemDatabaseSearch.search(text, searchSort, from, size);
+            itemRepository.countFacets(text)
+                    .forEach(row -> facets.add(row.getOwnerId(), row.getHasRequest(), row.getCount()));
+        } else if (fuzzy) {
+            itemIds = itemSearchIndex.fuzzySearch(text, searchSort, from, size, facets);
+        } else {
+            itemIds = itemSearchIndex.search(text, searchSort, from, size, facets);
+        }
+        List<ItemDtoOut> items = findAllInOrder(itemIds).stream()
+                .map(ItemMapper::toItemDtoOut)
+                .collect(toList());
+        return new ItemSearchResultDto(items, facets.toDto(TOP_OWNERS));
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int size) {
+        if (prefix.isBlank()) {
+            return new ArrayList<>();
+        }
+        return itemSuggestIndex.suggest(prefix, size);
+    }
+
+    @Override
+    public List<FreeIntervalDto> findAvailability(Long itemId, LocalDateTime from, LocalDateTime to,
+                                                  boolean includeWaiting) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
+        }
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь с id = " + itemId + " не найдена"));
+        List<FreeIntervalDto> free = new ArrayList<>();
+        if (!item.getAvailable()) {
+            return free;
+        }
+        // Занятые интервалы упорядочены по началу, свободные промежутки собираются за один проход
+        LocalDateTime cursor = from;
+        for (ItemAvailabilityCache.Busy busy : itemAvailabilityCache.get(itemId, this::loadBusyIntervals)) {
+            if (!busy.start().isBefore(to)) {
+                break;
+            }
+            if ((!includeWaiting && !busy.approved()) || !busy.end().isAfter(cursor)) {
+                continue;
+            }
+            if (busy.start().isAfter(cursor)) {
+                free.add(new FreeIntervalDto(cursor, busy.start()));
+            }
+            cursor = busy.end();
+            if (!cursor.isBefore(to)) {
+                return free;
+            }
+        }
+        free.add(new FreeIntervalDto(cursor, to));
+        return free;
+    }
+
+    private List<ItemAvailabilityCache.Busy> loadBusyIntervals(Long itemId) {
+        return bookingRepository.findIntervalsByItemId(itemId, List.of(BookingStatus.APPROVED, BookingStatus.WAITING))
+                .stream()
+                .map(booking -> new ItemAvailabilityCache.Busy(booking.getStart(), booking.getEnd(),
+                        booking.getStatus() == BookingStatus.APPROVED))
+                .collect(toList());
+    }
+
     @Override
     @Transactional
     public CommentDtoOut createComment(Long userId, CommentDto commentDto, Long itemId) {
         User user = UserMapper.toUser(userService.findById(userId));
-        Item item = itemRepository.findById(itemId)
+        Item item = itemRepository.findForUpdateById(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь с id = " + itemId + " не найдена"));
 
         // Проверка, что пользователь брал вещь в аренду и аренда завершилась
@@ -189,37 +357,47 @@ public class ItemServiceImpl implements ItemService {
         }
         Comment comment = CommentMapper.toComment(commentDto, item, user);
         comment = commentRepository.save(comment);
+        item.setCommentCount(item.getCommentCount() + 1);
         return CommentMapper.toCommentDtoOut(comment);
     }
 
-    private List<CommentDtoOut> getAllItemComments(Long itemId) {
-        List<Comment> comments = commentRepository.findAllByItemId(itemId);
+    @Override
+    public List<CommentDtoOut> getComments(Long itemId, KeysetCursor after, int size) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Вещь с id = " + itemId + " не найдена");
+        }
+        List<CommentDtoOut> comments = getCommentPage(itemId, after, size);
+        log.info("Для вещи с id = {} найдено {} комментариев после {}", itemId, comments.size(), after);
+        return comments;
+    }
 
-        return comments.stream()
+    private List<CommentDtoOut> getCommentPage(Long itemId, KeysetCursor after, int size) {
+        return commentRepository.findPageByItemId(itemId, after == null ? null : after.time(),
+                        after == null ? null : after.id(), Limit.of(size))
+                .stream()
                 .map(CommentMapper::toCommentDtoOut)
                 .collect(toList());
     }
 
-    private BookingDtoOut getLastBooking(List<BookingDtoOut> bookings, LocalDateTime time) {
-        if (bookings == null || bookings.isEmpty()) {
-            return null;
-        }
+    // Из базы читаются только соседние с текущим моментом бронирования, а не вся история вещи
+    private Map<Long, BookingDtoOut> getLastBookings(List<Long> itemIdList, LocalDateTime time) {
+        return toBookingsByItem(bookingRepository.findLastBookings(itemIdList, BookingStatus.APPROVED, time));
+    }
+
+    private Map<Long, BookingDtoOut> getNextBookings(List<Long> itemIdList, LocalDateTime time) {
+        return toBookingsByItem(bookingRepository.findNextBookings(itemIdList, BookingStatus.APPROVED, time));
+    }
 
+    private Map<Long, BookingDtoOut> toBookingsByItem(List<Booking> bookings) {
         return bookings
                 .stream()
-                .filter(b -> b.getStart().isBefore(time))
-                .reduce((b1, b2) -> b1.getStart().isAfter(b2.getStart()) ? b1 : b2)
-                .orElse(null);
+                .map(BookingMapper::toBookingOut)
+                .collect(Collectors.toMap(BookingDtoOut::getItemId, Function.identity(), (b1, b2) -> b1));
     }
 
-    private BookingDtoOut getNextBooking(List<BookingDtoOut> bookings, LocalDateTime time) {
-        if (bookings == null || bookings.isEmpty()) {
-            return null;
+    private void checkUser(Long userId) {
+        if (!userService.existsById(userId)) {
+            throw new NotFoundException("Пользователь с " + userId + " не найден");
         }
-        return bookings
-                .stream()
-                .filter(b -> b.getStart().isAfter(time))
-                .findFirst()
-                .orElse(null);
     }
 }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.ndjson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class NdjsonConfig implements WebMvcConfigurer {
+    private final ObjectMapper objectMapper;
+
+    public NdjsonConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // Добавляется последним, чтобы обычные ответы об ошибках по-прежнему выбирали JSON
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new NdjsonErrorConverter(objectMapper));
+    }
+}
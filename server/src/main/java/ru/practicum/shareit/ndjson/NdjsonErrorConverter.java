@@ -0,0 +1,50 @@
+package ru.practicum.shareit.ndjson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.exception.ErrorResponse;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+// Ошибка потокового запроса возвращается одной строкой NDJSON,
+// иначе при Accept: application/x-ndjson вместо неё клиент получил бы 406
+public class NdjsonErrorConverter extends AbstractJackson2HttpMessageConverter {
+
+    public NdjsonErrorConverter(ObjectMapper objectMapper) {
+        super(objectMapper, MediaType.APPLICATION_NDJSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ErrorResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return supports(clazz) && super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return supports(clazz) && super.canWrite(type, clazz, mediaType);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeSuffix(JsonGenerator generator, Object object) throws IOException {
+        generator.writeRaw('\n');
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.ndjson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+// Пишет объекты в ответ построчно в формате NDJSON по мере их получения.
+// Первая строка отправляется сразу, дальше ответ сбрасывается каждые FLUSH_ROWS строк.
+// Пока ничего не записано, ответ не зафиксирован и ошибку можно вернуть обычным образом.
+public class NdjsonWriter implements Consumer<Object> {
+    public static final int FLUSH_ROWS = 100;
+
+    private final HttpServletResponse response;
+    private final ObjectWriter writer;
+    private OutputStream output;
+    private long rows;
+
+    public NdjsonWriter(HttpServletResponse response, ObjectMapper objectMapper) {
+        this.response = response;
+        this.writer = objectMapper.writer();
+    }
+
+    @Override
+    public void accept(Object value) {
+        try {
+            if (output == null) {
+                open();
+            }
+            output.write(writer.writeValueAsBytes(value));
+            output.write('\n');
+            rows++;
+            if (rows == 1 || rows % FLUSH_ROWS == 0) {
+                output.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void finish() throws IOException {
+        if (output == null) {
+            open();
+        }
+        output.flush();
+    }
+
+    private void open() throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        output = response.getOutputStream();
+    }
+}
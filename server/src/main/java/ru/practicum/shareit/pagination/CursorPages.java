@@ -0,0 +1,23 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+@UtilityClass
+public class CursorPages {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Неполная страница последняя, для полной курсор её последней записи возвращается в заголовке X-Next-Cursor
+    public static <T> ResponseEntity<List<T>> withNextCursor(List<T> page, int size,
+                                                             Function<T, KeysetCursor> position) {
+        if (page.isEmpty() || page.size() < size) {
+            return ResponseEntity.ok(page);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, position.apply(page.get(page.size() - 1)).encode())
+                .body(page);
+    }
+}
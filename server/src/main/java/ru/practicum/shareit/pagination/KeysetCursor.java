@@ -0,0 +1,35 @@
+package ru.practicum.shareit.pagination;
+
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Позиция в списке, упорядоченном по (time, id) по убыванию: бронирования по началу,
+// запросы и комментарии по времени создания. Клиенту передаётся непрозрачной строкой,
+// следующая страница начинается сразу после этой позиции
+public record KeysetCursor(LocalDateTime time, Long id) {
+    private static final String SEPARATOR = "|";
+
+    // Пустая строка означает первую страницу
+    public static KeysetCursor decode(String token) {
+        if (token.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException("Некорректный курсор: " + token);
+        }
+    }
+
+    public String encode() {
+        String value = time + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
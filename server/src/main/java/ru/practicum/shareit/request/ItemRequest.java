@@ -2,6 +2,8 @@ package ru.practicum.shareit.request;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
@@ -11,6 +13,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "requests")
+@NamedEntityGraph(name = ItemRequest.DETAIL_GRAPH, attributeNodes = @NamedAttributeNode("items"))
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "requests")
@@ -18,6 +23,8 @@ import java.util.List;
 @Setter
 @Builder
 public class ItemRequest {
+    // Запрос показывается со списком вещей, добавленных в ответ на него
+    public static final String DETAIL_GRAPH = "ItemRequest.detail";
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,7 +33,7 @@ public class ItemRequest {
     @Column(name = "description", nullable = false)
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requester_id")
     private User requester;
 
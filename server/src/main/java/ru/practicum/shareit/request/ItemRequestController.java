@@ -2,7 +2,11 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.pagination.CursorPages;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -29,12 +33,26 @@ public class ItemRequestController {
         return requestService.getUserRequests(userId);
     }
 
+    // С параметром after (пустым для первой страницы) выборка идёт по курсору,
+    // курсор следующей страницы возвращается в заголовке X-Next-Cursor
     @GetMapping("/all")
-    public List<ItemRequestDtoOut> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                  @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                  @RequestParam(value = "size", defaultValue = "10") Integer size) {
+    public ResponseEntity<List<ItemRequestDtoOut>> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                  @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                  @RequestParam(value = "size", defaultValue = "10") Integer size,
+                                                                  @RequestParam(value = "after", required = false) String after) {
         log.info("Запрос на получение всех запросов на вещи от всех пользователей");
-        return requestService.getAllRequests(userId, from, size);
+        if (after == null) {
+            return ResponseEntity.ok(requestService.getAllRequests(userId, from, size));
+        }
+        return CursorPages.withNextCursor(requestService.getAllRequests(userId, KeysetCursor.decode(after), size),
+                size, request -> new KeysetCursor(request.getCreated(), request.getId()));
+    }
+
+    @GetMapping("/feed")
+    public List<ItemRequestDtoOut> getFeed(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                           @RequestParam(value = "size", defaultValue = "10") Integer size) {
+        log.info("Запрос на получение ленты запросов от пользователя c id = {}", userId);
+        return requestService.getFeed(userId, size);
     }
 
     @GetMapping("/{requestId}")
@@ -43,4 +61,12 @@ public class ItemRequestController {
         log.info("Запрос на получение данных по запросу с id = {} от пользователя c id = {}", requestId, userId);
         return requestService.getRequestById(userId, requestId);
     }
+
+    @GetMapping("/{requestId}/matches")
+    public List<ItemDtoOut> getMatches(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                       @PathVariable Long requestId) {
+        log.info("Запрос на получение вещей, подобранных к запросу с id = {}, от пользователя c id = {}",
+                requestId, userId);
+        return requestService.getMatches(userId, requestId);
+    }
 }
@@ -1,13 +1,48 @@
 package ru.practicum.shareit.request;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
+    @Override
+    @EntityGraph(ItemRequest.DETAIL_GRAPH)
+    Optional<ItemRequest> findById(Long id);
+
+    // Списки загружают вещи отдельным запросом, чтобы страница запросов строилась в БД.
+    // Результат кешируется в регионе requests-by-requester до изменения таблицы requests
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = "requests-by-requester")})
     List<ItemRequest> findAllByRequesterId(Long userId, Sort sort);
 
-    List<ItemRequest> findAllByRequesterIdIsNot(Long userId, Sort sort);
+    @Query("select r from ItemRequest r " +
+            "where r.requester.id <> :userId " +
+            "order by r.created desc, r.id desc " +
+            "limit :size offset :from")
+    List<ItemRequest> findAllByRequesterIdIsNot(@Param("userId") Long userId,
+                                                @Param("from") int from,
+                                                @Param("size") int size);
+
+    // Страница после курсора, пустой курсор означает первую страницу
+    @Query("select r from ItemRequest r " +
+            "where r.requester.id <> :userId " +
+            "and (:afterCreated is null or (r.created, r.id) < (:afterCreated, :afterId)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findPageByRequesterIdIsNot(@Param("userId") Long userId,
+                                                 @Param("afterCreated") LocalDateTime afterCreated,
+                                                 @Param("afterId") Long afterId,
+                                                 Limit limit);
 }
@@ -3,7 +3,9 @@ package ru.practicum.shareit.request.dto;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.item.dto.ItemDtoOut;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
 import ru.practicum.shareit.user.User;
 
 import java.util.ArrayList;
@@ -42,4 +44,26 @@ public class ItemRequestMapper {
                 .items(itemsDtoOut)
                 .build();
     }
+
+    public ItemRequestDtoOut toRequestDtoOut(ItemRequestFeed.Entry entry, List<Item> items) {
+        return ItemRequestDtoOut.builder()
+                .id(entry.id())
+                .description(entry.description())
+                .created(entry.created())
+                .items(items.stream()
+                        .map(ItemMapper::toItemDtoOut)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    public ItemRequestDtoOut toRequestDtoOut(ItemRequest request, List<Item> items) {
+        return ItemRequestDtoOut.builder()
+                .id(request.getId())
+                .description(request.getDescription())
+                .created(request.getCreated())
+                .items(items.stream()
+                        .map(ItemMapper::toItemDtoOut)
+                        .collect(Collectors.toList()))
+                .build();
+    }
 }
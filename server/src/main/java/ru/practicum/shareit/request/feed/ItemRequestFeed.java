@@ -0,0 +1,217 @@
+package ru.practicum.shareit.request.feed;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.search.IndexWarmUp;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Лента запросов для владельцев: запрос попадает в ленту владельца, если в его описании есть слово
+// из названия или описания вещей владельца. Ленты обновляются при добавлении запросов и вещей
+// и хранятся в памяти: у каждого владельца не больше capacity самых новых подходящих запросов.
+// Новая вещь сопоставляется с последними window запросами
+@Component
+public class ItemRequestFeed {
+    private static final Comparator<Entry> OLDEST_FIRST = Comparator.comparing(Entry::created,
+                    Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Entry::id);
+
+    private final int capacity;
+    private final int window;
+    // Слово -> владелец -> число его вещей с этим словом
+    private final Map<String, Map<Long, Integer>> ownersByTerm = new HashMap<>();
+    private final Map<Long, ItemTerms> items = new HashMap<>();
+    private final Map<Long, OwnerFeed> feeds = new HashMap<>();
+    private final Deque<Entry> recent = new ArrayDeque<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IndexWarmUp itemsWarmUp = new IndexWarmUp();
+    private final IndexWarmUp requestsWarmUp = new IndexWarmUp();
+
+    public ItemRequestFeed(@Value("${shareit.request.feed.capacity:100}") int capacity,
+                           @Value("${shareit.request.feed.window:10000}") int window) {
+        this.capacity = capacity;
+        this.window = window;
+    }
+
+    // Изменения, зафиксированные во время загрузки, применяются сразу и не повторяются строками загрузчика
+    public void startLoad() {
+        lock.writeLock().lock();
+        try {
+            itemsWarmUp.start();
+            requestsWarmUp.start();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void finishLoad() {
+        lock.writeLock().lock();
+        try {
+            itemsWarmUp.finish();
+            requestsWarmUp.finish();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addRequest(Long id, Long requesterId, String description, LocalDateTime created) {
+        Entry entry = new Entry(id, requesterId, description, created, ItemSearchIndex.terms(description));
+        lock.writeLock().lock();
+        try {
+            requestsWarmUp.changed(id);
+            addEntry(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void loadRequest(Long id, Long requesterId, String description, LocalDateTime created) {
+        Entry entry = new Entry(id, requesterId, description, created, ItemSearchIndex.terms(description));
+        lock.writeLock().lock();
+        try {
+            if (!requestsWarmUp.isStale(id)) {
+                addEntry(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Вызывается при добавлении и изменении вещи, в ленту попадают запросы со словами, новыми для владельца
+    public void putItem(Long itemId, Long ownerId, String name, String description) {
+        Set<String> terms = ItemSearchIndex.terms(name);
+        terms.addAll(ItemSearchIndex.terms(description));
+        lock.writeLock().lock();
+        try {
+            itemsWarmUp.changed(itemId);
+            putTerms(itemId, ownerId, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void loadItem(Long itemId, Long ownerId, String name, String description) {
+        Set<String> terms = ItemSearchIndex.terms(name);
+        terms.addAll(ItemSearchIndex.terms(description));
+        lock.writeLock().lock();
+        try {
+            if (!itemsWarmUp.isStale(itemId)) {
+                putTerms(itemId, ownerId, terms);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeItem(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            itemsWarmUp.changed(itemId);
+            removeTerms(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Новые запросы первыми. Запросы, переставшие совпадать после изменения вещей, пропускаются
+    public List<Entry> get(Long ownerId, int size) {
+        lock.readLock().lock();
+        try {
+            OwnerFeed feed = feeds.get(ownerId);
+            if (feed == null) {
+                return List.of();
+            }
+            return feed.queue().stream()
+                    .filter(entry -> entry.terms().stream()
+                            .anyMatch(term -> ownersByTerm.getOrDefault(term, Map.of()).containsKey(ownerId)))
+                    .sorted(OLDEST_FIRST.reversed())
+                    .limit(size)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addEntry(Entry entry) {
+        recent.addLast(entry);
+        if (recent.size() > window) {
+            recent.removeFirst();
+        }
+        Set<Long> owners = new HashSet<>();
+        for (String term : entry.terms()) {
+            owners.addAll(ownersByTerm.getOrDefault(term, Map.of()).keySet());
+        }
+        owners.remove(entry.requesterId());
+        owners.forEach(owner -> offer(owner, entry));
+    }
+
+    private void putTerms(Long itemId, Long ownerId, Set<String> terms) {
+        removeTerms(itemId);
+        items.put(itemId, new ItemTerms(ownerId, terms));
+        Set<String> added = new HashSet<>();
+        for (String term : terms) {
+            if (ownersByTerm.computeIfAbsent(term, key -> new HashMap<>()).merge(ownerId, 1, Integer::sum) == 1) {
+                added.add(term);
+            }
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+        for (Entry entry : recent) {
+            if (!entry.requesterId().equals(ownerId) && !Collections.disjoint(entry.terms(), added)) {
+                offer(ownerId, entry);
+            }
+        }
+    }
+
+    // В вершине очереди самый старый запрос, он вытесняется при переполнении
+    private void offer(Long ownerId, Entry entry) {
+        OwnerFeed feed = feeds.computeIfAbsent(ownerId, key -> new OwnerFeed());
+        if (feed.ids().contains(entry.id())) {
+            return;
+        }
+        PriorityQueue<Entry> queue = feed.queue();
+        if (queue.size() >= capacity) {
+            if (OLDEST_FIRST.compare(entry, queue.peek()) <= 0) {
+                return;
+            }
+            feed.ids().remove(queue.poll().id());
+        }
+        queue.add(entry);
+        feed.ids().add(entry.id());
+    }
+
+    private void removeTerms(Long itemId) {
+        ItemTerms previous = items.remove(itemId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms()) {
+            Map<Long, Integer> owners = ownersByTerm.get(term);
+            if (owners.merge(previous.ownerId(), -1, Integer::sum) == 0) {
+                owners.remove(previous.ownerId());
+            }
+            if (owners.isEmpty()) {
+                ownersByTerm.remove(term);
+            }
+        }
+    }
+
+    public record Entry(Long id, Long requesterId, String description, LocalDateTime created, Set<String> terms) {
+    }
+
+    private record ItemTerms(Long ownerId, Set<String> terms) {
+    }
+
+    // Множество id рядом с очередью, чтобы проверка повтора не просматривала всю ленту
+    private record OwnerFeed(PriorityQueue<Entry> queue, Set<Long> ids) {
+
+        OwnerFeed() {
+            this(new PriorityQueue<>(OLDEST_FIRST), new HashSet<>());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.request.feed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+// Построение лент запросов из таблиц items и requests при старте приложения
+@Component
+@Slf4j
+public class ItemRequestFeedLoader {
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository requestRepository;
+    private final ItemRequestFeed requestFeed;
+    private final int window;
+
+    public ItemRequestFeedLoader(ItemRepository itemRepository, ItemRequestRepository requestRepository,
+                                 ItemRequestFeed requestFeed,
+                                 @Value("${shareit.request.feed.window:10000}") int window) {
+        this.itemRepository = itemRepository;
+        this.requestRepository = requestRepository;
+        this.requestFeed = requestFeed;
+        this.window = window;
+    }
+
+    // Сначала слова владельцев, затем последние запросы в порядке создания
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        requestFeed.startLoad();
+        try (Stream<ItemTermsView> items = itemRepository.findAllForFeed()) {
+            items.forEach(item -> requestFeed.loadItem(item.getId(), item.getOwnerId(), item.getName(),
+                    item.getDescription()));
+        }
+        List<ItemRequest> requests = requestRepository.findAll(PageRequest.of(0, window,
+                Sort.by(Sort.Direction.DESC, "created", "id"))).getContent();
+        for (ItemRequest request : requests.reversed()) {
+            requestFeed.loadRequest(request.getId(), request.getRequester().getId(), request.getDescription(),
+                    request.getCreated());
+        }
+        requestFeed.finishLoad();
+        log.info("Ленты запросов построены, загружено запросов: {}", requests.size());
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.request.feed;
+
+// Проекция вещи с полями, из которых строятся слова владельца для ленты запросов
+public interface ItemTermsView {
+
+    Long getId();
+
+    Long getOwnerId();
+
+    String getName();
+
+    String getDescription();
+}
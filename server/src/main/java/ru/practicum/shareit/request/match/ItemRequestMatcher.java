@@ -0,0 +1,192 @@
+package ru.practicum.shareit.request.match;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Подбор вещей к запросам по поисковому индексу. Подбор выполняется в пуле с ограниченной очередью:
+// новый запрос ставится в очередь после сохранения, результат - id вещей по убыванию релевантности.
+// Записи проиндексированы по словам запроса: изменение вещи сбрасывает подбор только тех запросов,
+// с которыми у её старого или нового текста есть общие слова
+@Component
+@Slf4j
+public class ItemRequestMatcher implements MeterBinder {
+    private final ItemSearchIndex itemSearchIndex;
+    private final ThreadPoolExecutor executor;
+    private final Cache<Long, Match> matches;
+    private final Map<String, Set<Long>> requestsByTerm = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final int limit;
+    private final Duration timeout;
+
+    public ItemRequestMatcher(ItemSearchIndex itemSearchIndex,
+                              @Value("${shareit.request.match.threads:2}") int threads,
+                              @Value("${shareit.request.match.queue-capacity:1000}") int queueCapacity,
+                              @Value("${shareit.request.match.limit:20}") int limit,
+                              @Value("${shareit.request.match.timeout:PT2S}") Duration timeout,
+                              @Value("${shareit.request.match.cache.max-size:10000}") long maxSize,
+                              @Value("${shareit.request.match.cache.ttl:PT10M}") Duration ttl) {
+        this.itemSearchIndex = itemSearchIndex;
+        AtomicInteger number = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "request-matcher-" + number.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.matches = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .evictionListener((Long requestId, Match match, RemovalCause cause) -> unindex(requestId, match))
+                .recordStats()
+                .build();
+        this.limit = limit;
+        this.timeout = timeout;
+    }
+
+    // При заполненной очереди подбор откладывается до первого чтения
+    public void submit(Long requestId, String description) {
+        try {
+            executor.execute(() -> match(requestId, description));
+        } catch (RejectedExecutionException e) {
+            log.warn("Очередь подбора вещей заполнена, запрос {} будет обработан при чтении", requestId);
+        }
+    }
+
+    // Подбор - подсказка владельцам, поэтому при перегрузке пула возвращается пустой список
+    public List<Long> get(Long requestId, String description) {
+        Match match = matches.getIfPresent(requestId);
+        if (match != null) {
+            return match.ids();
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> match(requestId, description), executor)
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException | TimeoutException e) {
+            log.warn("Подбор вещей для запроса {} не выполнен: пул перегружен", requestId);
+            return List.of();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка подбора вещей для запроса " + requestId, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+    }
+
+    // before равен null для новой вещи. Сдвиг оценок из-за общей статистики индекса не учитывается
+    public void invalidate(ItemSearchCache.Snapshot before, ItemSearchCache.Snapshot after) {
+        if (after.equals(before)) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        Set<String> terms = terms(after);
+        if (before != null) {
+            terms.addAll(terms(before));
+        }
+        Set<Long> affected = new HashSet<>();
+        for (String term : terms) {
+            affected.addAll(requestsByTerm.getOrDefault(term, Set.of()));
+        }
+        affected.forEach(this::remove);
+    }
+
+    // Для изменений, затронувших неизвестный набор вещей
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        matches.asMap().keySet().forEach(this::remove);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, matches, "requestMatches");
+        new ExecutorServiceMetrics(executor, "requestMatcher", List.of()).bindTo(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // До загрузки индекса результат неполный и не сохраняется. Результат, посчитанный одновременно
+    // с изменением вещи, тоже не сохраняется, как и в кеше поиска
+    private List<Long> match(Long requestId, String description) {
+        boolean ready = itemSearchIndex.isReady();
+        long version = invalidations.get();
+        List<Long> ids = List.copyOf(itemSearchIndex.match(description, limit));
+        if (ready && version == invalidations.get()) {
+            Match match = new Match(ItemSearchIndex.terms(description), ids);
+            matches.asMap().compute(requestId, (id, old) -> {
+                if (old != null) {
+                    unindex(id, old);
+                }
+                index(id, match);
+                return match;
+            });
+            if (version != invalidations.get()) {
+                remove(requestId);
+            }
+        }
+        return ids;
+    }
+
+    private void remove(Long requestId) {
+        matches.asMap().computeIfPresent(requestId, (id, match) -> {
+            unindex(id, match);
+            return null;
+        });
+    }
+
+    private void index(Long requestId, Match match) {
+        for (String term : match.terms()) {
+            requestsByTerm.compute(term, (t, ids) -> {
+                Set<Long> result = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                result.add(requestId);
+                return result;
+            });
+        }
+    }
+
+    private void unindex(Long requestId, Match match) {
+        for (String term : match.terms()) {
+            requestsByTerm.computeIfPresent(term, (t, ids) -> {
+                ids.remove(requestId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static Set<String> terms(ItemSearchCache.Snapshot item) {
+        Set<String> terms = ItemSearchIndex.terms(item.name());
+        terms.addAll(ItemSearchIndex.terms(item.description()));
+        return terms;
+    }
+
+    private record Match(Set<String> terms, List<Long> ids) {
+    }
+}
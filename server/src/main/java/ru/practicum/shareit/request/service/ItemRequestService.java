@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request.service;
 
 
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
 
@@ -14,5 +16,11 @@ public interface ItemRequestService {
 
     List<ItemRequestDtoOut> getAllRequests(Long userId, Integer from, Integer size);
 
+    List<ItemRequestDtoOut> getAllRequests(Long userId, KeysetCursor after, int size);
+
     ItemRequestDtoOut getRequestById(Long userId, Long requestId);
+
+    List<ItemDtoOut> getMatches(Long userId, Long requestId);
+
+    List<ItemRequestDtoOut> getFeed(Long userId, int size);
 }
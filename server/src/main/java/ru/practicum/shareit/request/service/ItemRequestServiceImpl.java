@@ -2,21 +2,34 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
+import ru.practicum.shareit.request.match.ItemRequestMatcher;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,6 +39,9 @@ import java.util.stream.Collectors;
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final UserService userService;
     private final ItemRequestRepository requestRepository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestMatcher requestMatcher;
+    private final ItemRequestFeed requestFeed;
 
     @Override
     @Transactional
@@ -33,35 +49,45 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         User user = UserMapper.toUser(userService.findById(userId));
         ItemRequest request = ItemRequestMapper.toRequest(user, itemRequestDto);
         ItemRequestDtoOut requestDtoOut = ItemRequestMapper.toRequestDtoOut(requestRepository.save(request));
+        afterCommit(() -> {
+            requestMatcher.submit(requestDtoOut.getId(), requestDtoOut.getDescription());
+            requestFeed.addRequest(requestDtoOut.getId(), userId, requestDtoOut.getDescription(),
+                    requestDtoOut.getCreated());
+        });
         log.info("Запрос {} успешно добавлен", requestDtoOut);
         return requestDtoOut;
     }
 
     @Override
     public List<ItemRequestDtoOut> getUserRequests(Long userId) {
-        userService.findById(userId);
+        checkUser(userId);
         Sort sort = Sort.by(Sort.Direction.DESC, "created");
         List<ItemRequest> itemRequestList = requestRepository.findAllByRequesterId(userId, sort);
         log.info("Для пользователя с id = {} найдено {} запросов", userId, itemRequestList.size());
-        return itemRequestList.stream()
-                .map(ItemRequestMapper::toRequestDtoOut)
-                .collect(Collectors.toList());
+        return toRequestDtoOuts(itemRequestList);
     }
 
     @Override
     public List<ItemRequestDtoOut> getAllRequests(Long userId, Integer from, Integer size) {
-        userService.findById(userId);
-        Sort sort = Sort.by(Sort.Direction.DESC, "created");
-        List<ItemRequest> itemRequestList = requestRepository.findAllByRequesterIdIsNot(userId, sort);
+        checkUser(userId);
+        List<ItemRequest> itemRequestList = requestRepository.findAllByRequesterIdIsNot(userId, from, size);
         log.info("Для пользователя с id = {} найдено {} запросов других пользователей", userId, itemRequestList.size());
-        return itemRequestList.stream()
-                .map(ItemRequestMapper::toRequestDtoOut)
-                .collect(Collectors.toList());
+        return toRequestDtoOuts(itemRequestList);
+    }
+
+    @Override
+    public List<ItemRequestDtoOut> getAllRequests(Long userId, KeysetCursor after, int size) {
+        checkUser(userId);
+        List<ItemRequest> itemRequestList = requestRepository.findPageByRequesterIdIsNot(userId,
+                after == null ? null : after.time(), after == null ? null : after.id(), Limit.of(size));
+        log.info("Для пользователя с id = {} найдено {} запросов других пользователей после {}",
+                userId, itemRequestList.size(), after);
+        return toRequestDtoOuts(itemRequestList);
     }
 
     @Override
     public ItemRequestDtoOut getRequestById(Long userId, Long requestId) {
-        userService.findById(userId);
+        checkUser(userId);
         Optional<ItemRequest> requestById = requestRepository.findById(requestId);
         if (requestById.isEmpty()) {
             throw new NotFoundException(String.format("Запрос с id: %s не был найден.", requestId));
@@ -70,5 +96,80 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         log.info("Запрос по id = {} найден: {}", requestId, requestDtoOut);
         return requestDtoOut;
     }
-}
 
+    // Подобранные вещи перечитываются из базы: в ответ попадают только доступные вещи других пользователей
+    @Override
+    public List<ItemDtoOut> getMatches(Long userId, Long requestId) {
+        checkUser(userId);
+        ItemRequest request = requestRepository.findById(requestId)
+                .orElseThrow(() -> new NotFoundException(String.format("Запрос с id: %s не был найден.", requestId)));
+        List<Long> ids = requestMatcher.get(request.getId(), request.getDescription());
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<ItemDtoOut> matches = ids.stream()
+                .map(items::get)
+                .filter(item -> item != null && Boolean.TRUE.equals(item.getAvailable())
+                        && !Objects.equals(item.getOwner().getId(), request.getRequester().getId()))
+                .map(ItemMapper::toItemDtoOut)
+                .collect(Collectors.toList());
+        log.info("Для запроса {} подобрано {} вещей", requestId, matches.size());
+        return matches;
+    }
+
+    // Лента владельца хранится в памяти, из базы читаются только вещи, предложенные к запросам
+    @Override
+    public List<ItemRequestDtoOut> getFeed(Long userId, int size) {
+        checkUser(userId);
+        List<ItemRequestFeed.Entry> entries = requestFeed.get(userId, size);
+        log.info("В ленте пользователя с id = {} найдено {} запросов", userId, entries.size());
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<Item>> itemsByRequest = findItemsByRequestIds(entries.stream()
+                .map(ItemRequestFeed.Entry::id)
+                .collect(Collectors.toList()));
+        return entries.stream()
+                .map(entry -> ItemRequestMapper.toRequestDtoOut(entry,
+                        itemsByRequest.getOrDefault(entry.id(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    // Подбор и ленты не должны видеть запрос, который ещё не зафиксирован или откатился
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Вещи всех запросов загружаются одним запросом, а не по одному на каждый запрос
+    private List<ItemRequestDtoOut> toRequestDtoOuts(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<Item>> itemsByRequest = findItemsByRequestIds(requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList()));
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toRequestDtoOut(request,
+                        itemsByRequest.getOrDefault(request.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, List<Item>> findItemsByRequestIds(List<Long> requestIds) {
+        return itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+    }
+
+    private void checkUser(Long userId) {
+        if (!userService.existsById(userId)) {
+            throw new NotFoundException("Пользователь с " + userId + " не найден");
+        }
+    }
+}
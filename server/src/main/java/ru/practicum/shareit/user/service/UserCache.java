@@ -0,0 +1,56 @@
+package ru.practicum.shareit.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// Кеш пользователей по id. Запись сбрасывается после изменения или удаления пользователя,
+// а срок жизни ограничивает устаревание, если пользователя изменил другой экземпляр приложения
+@Component
+public class UserCache implements MeterBinder {
+    private final Cache<Long, UserDto> cache;
+
+    public UserCache(@Value("${shareit.user.cache.max-size:10000}") long maxSize,
+                     @Value("${shareit.user.cache.ttl:PT10M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // Отсутствующий пользователь не кешируется: исключение загрузчика передаётся вызывающему
+    public UserDto get(Long id, Function<Long, UserDto> loader) {
+        return copy(cache.get(id, loader));
+    }
+
+    public boolean contains(Long id) {
+        return cache.getIfPresent(id) != null;
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "users");
+    }
+
+    // UserDto изменяемый, поэтому вызывающий получает копию записи
+    private UserDto copy(UserDto user) {
+        return UserDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .build();
+    }
+}
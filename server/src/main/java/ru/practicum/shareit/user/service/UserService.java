@@ -14,6 +14,8 @@ public interface UserService {
 
     UserDto findById(Long id);
 
+    boolean existsById(Long id);
+
     Collection<UserDto> getAll();
 
     void delete(Long id);
@@ -1,17 +1,24 @@
 package ru.practicum.shareit.user.service;
 
+import jakarta.persistence.EntityManagerFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemIndexUpdater;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,10 +26,19 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ItemRepository itemRepository;
+    private final ItemIndexUpdater itemIndexUpdater;
+    private final EntityManagerFactory entityManagerFactory;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, UserCache userCache, ItemRepository itemRepository,
+                           ItemIndexUpdater itemIndexUpdater, EntityManagerFactory entityManagerFactory) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.itemRepository = itemRepository;
+        this.itemIndexUpdater = itemIndexUpdater;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
     @Override
@@ -50,19 +66,22 @@ public class UserServiceImpl implements UserService {
         if (email != null && !email.isBlank()) {
             user.setEmail(email);
         }
+        invalidateAfterCommit(id);
         log.info("Пользователь {} успешно обновлён", user);
         return UserMapper.toUserDto(user);
     }
 
     @Override
     public UserDto findById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> {
-                            return new NotFoundException("Пользователь с " + id + " не найден");
-                        }
-                );
+        UserDto user = userCache.get(id, this::load);
         log.info("Пользователь с id = {} найден", id);
-        return UserMapper.toUserDto(user);
+        return user;
+    }
+
+    // Для проверки существования строка пользователя не читается
+    @Override
+    public boolean existsById(Long id) {
+        return userCache.contains(id) || userRepository.existsById(id);
     }
 
     @Override
@@ -85,7 +104,45 @@ public class UserServiceImpl implements UserService {
                             return new NotFoundException("Пользователь с " + id + " не найден");
                         }
                 );
+        // Удаление вещей пользователя реализовано в БД с помощью конструкции ON DELETE CASCADE,
+        // Hibernate о нём не знает, поэтому вещи вытесняются из кеша второго уровня,
+        // а id вещей читаются до удаления, чтобы убрать их из индексов в памяти
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(id);
         userRepository.deleteById(id);
-        // Удаление вещей пользователя реализовано в БД с помощью конструкции ON DELETE CASCADE
+        invalidateAfterCommit(id);
+        evictAfterCommit(Item.class);
+        itemIndexUpdater.removeAll(itemIds);
+    }
+
+    private UserDto load(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> {
+                            return new NotFoundException("Пользователь с " + id + " не найден");
+                        }
+                );
+        return UserMapper.toUserDto(user);
+    }
+
+    // Запись сбрасывается после фиксации, иначе параллельное чтение могло бы вернуть в кеш старые данные
+    private void invalidateAfterCommit(Long id) {
+        userCache.invalidate(id);
+        afterCompletion(() -> userCache.invalidate(id));
+    }
+
+    private void evictAfterCommit(Class<?> entityClass) {
+        entityManagerFactory.getCache().evict(entityClass);
+        afterCompletion(() -> entityManagerFactory.getCache().evict(entityClass));
+    }
+
+    private void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
     }
 }
@@ -0,0 +1,19 @@
+-- Перенос существующей базы на bookings.owner_id (PostgreSQL). Повторный запуск безопасен.
+-- При старте приложения BookingOwnerConsistencyCheck только сообщает о расхождениях owner_id с items
+
+ALTER TABLE bookings
+    ADD COLUMN IF NOT EXISTS owner_id BIGINT REFERENCES users (id);
+
+UPDATE bookings b
+SET owner_id = i.owner_id
+FROM items i
+WHERE i.id = b.item_id
+  AND b.owner_id IS DISTINCT FROM i.owner_id;
+
+ALTER TABLE bookings
+    ALTER COLUMN owner_id SET NOT NULL;
+
+DROP INDEX IF EXISTS bookings_item_start_idx;
+
+CREATE INDEX IF NOT EXISTS bookings_owner_start_idx ON bookings (owner_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_owner_status_start_idx ON bookings (owner_id, status, start_date DESC, id DESC);
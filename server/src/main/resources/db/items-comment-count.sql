@@ -0,0 +1,12 @@
+-- Перенос существующей базы на items.comment_count (PostgreSQL). Повторный запуск безопасен.
+
+ALTER TABLE items
+    ADD COLUMN IF NOT EXISTS comment_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE items i
+SET comment_count = c.total
+FROM (SELECT item_id, count(*) AS total FROM comments GROUP BY item_id) c
+WHERE c.item_id = i.id
+  AND i.comment_count <> c.total;
+
+CREATE INDEX IF NOT EXISTS comments_item_created_idx ON comments (item_id, created DESC, id DESC);
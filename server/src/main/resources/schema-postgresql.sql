@@ -0,0 +1,17 @@
+-- Выполняется после schema.sql в профиле postgres (см. application-postgres.properties)
+
+-- Поиск по подстроке lower(...) like '%text%' использует триграммные индексы
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE items
+    DROP COLUMN IF EXISTS search_vector;
+
+CREATE INDEX IF NOT EXISTS items_name_trgm_idx ON items USING GIN (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS items_description_trgm_idx ON items USING GIN (lower(description) gin_trgm_ops);
+
+-- Подтверждённые бронирования одной вещи не должны пересекаться, в том числе между экземплярами приложения
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings
+    ADD CONSTRAINT bookings_approved_no_overlap
+        EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&) WHERE (status = 'APPROVED');
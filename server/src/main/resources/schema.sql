@@ -17,18 +17,27 @@ CREATE TABLE IF NOT EXISTS requests
     FOREIGN KEY (requester_id) REFERENCES users (id)
 );
 
+-- Страницы чужих запросов по смещению и по курсору (created, id)
+CREATE INDEX IF NOT EXISTS requests_created_idx ON requests (created DESC, id DESC);
+
 CREATE TABLE IF NOT EXISTS items
 (
-    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-    name        VARCHAR(256) NOT NULL,
-    description VARCHAR(512) NOT NULL,
-    available   BOOLEAN,
-    owner_id    BIGINT       NOT NULL,
-    request_id  BIGINT,
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name          VARCHAR(256) NOT NULL,
+    description   VARCHAR(512) NOT NULL,
+    available     BOOLEAN,
+    owner_id      BIGINT       NOT NULL,
+    request_id    BIGINT,
+    -- Увеличивается при добавлении комментария, карточка вещи не считает комментарии
+    comment_count BIGINT       NOT NULL DEFAULT 0,
     FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE,
     FOREIGN KEY (request_id) REFERENCES requests (id)
 );
 
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id);
+-- Вещи, добавленные в ответ на страницу запросов
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request_id);
+
 CREATE TABLE IF NOT EXISTS bookings
 (
     id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -36,11 +45,26 @@ CREATE TABLE IF NOT EXISTS bookings
     end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id    BIGINT                      NOT NULL,
     booker_id  BIGINT                      NOT NULL,
+    owner_id   BIGINT                      NOT NULL,
     status     VARCHAR(64),
     FOREIGN KEY (item_id) REFERENCES items (id),
-    FOREIGN KEY (booker_id) REFERENCES users (id)
+    FOREIGN KEY (booker_id) REFERENCES users (id),
+    FOREIGN KEY (owner_id) REFERENCES users (id)
 );
 
+-- Индексы под выборки BookingRepository, проверяются BookingQueryPlanTest.
+-- Списки пользователя по состоянию ALL/CURRENT/PAST/FUTURE и постраничное чтение по курсору
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC, id DESC);
+-- Списки пользователя по статусу WAITING/REJECTED
+CREATE INDEX IF NOT EXISTS bookings_booker_status_start_idx ON bookings (booker_id, status, start_date DESC, id DESC);
+-- Проверка завершённой аренды перед комментарием
+CREATE INDEX IF NOT EXISTS bookings_booker_item_end_idx ON bookings (booker_id, item_id, end_date);
+-- Последнее и следующее бронирование вещи, пересечения и календарь свободных периодов
+CREATE INDEX IF NOT EXISTS bookings_item_status_start_idx ON bookings (item_id, status, start_date);
+-- Списки владельца по копии owner_id, так же как списки пользователя
+CREATE INDEX IF NOT EXISTS bookings_owner_start_idx ON bookings (owner_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_owner_status_start_idx ON bookings (owner_id, status, start_date DESC, id DESC);
+
 CREATE TABLE IF NOT EXISTS comments
 (
     id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -51,3 +75,6 @@ CREATE TABLE IF NOT EXISTS comments
     FOREIGN KEY (item_id) REFERENCES items (id),
     FOREIGN KEY (author_id) REFERENCES users (id)
 );
+
+-- Последние комментарии в карточке вещи и страницы комментариев по курсору (created, id)
+CREATE INDEX IF NOT EXISTS comments_item_created_idx ON comments (item_id, created DESC, id DESC);
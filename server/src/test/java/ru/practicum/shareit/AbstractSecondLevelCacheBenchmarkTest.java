@@ -0,0 +1,104 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Нагрузка чтения справочных сущностей: пользователь по id, запросы пользователя и запрос по id,
+// каждое обращение в своей транзакции. Наследники запускают её с кешем второго уровня и без него.
+// Запуск: mvn test -pl server -Pbenchmark -Dtest='SecondLevelCache*BenchmarkTest'
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.schema-locations=classpath:schema.sql",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.springframework.transaction.interceptor=INFO",
+        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=INFO",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"})
+@DirtiesContext
+abstract class AbstractSecondLevelCacheBenchmarkTest {
+    private static final int USERS = 1_000;
+    private static final int REQUESTS_PER_USER = 5;
+    private static final int ITEMS_PER_REQUEST = 3;
+    private static final int OPERATIONS = 20_000;
+    private static final Sort CREATED_DESC = Sort.by(Sort.Direction.DESC, "created");
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRequestRepository requestRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void readReferenceEntities() {
+        fill();
+        run();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long started = System.nanoTime();
+        run();
+        long elapsed = System.nanoTime() - started;
+
+        log.info("{}: {} запросов к БД на операцию, {} мкс на операцию", getClass().getSimpleName(),
+                statistics.getPrepareStatementCount() / (double) OPERATIONS, elapsed / 1_000 / OPERATIONS);
+    }
+
+    private void run() {
+        Random random = new Random(42);
+        for (int i = 0; i < OPERATIONS; i++) {
+            long userId = random.nextInt(USERS) + 1;
+            long requestId = random.nextInt(USERS * REQUESTS_PER_USER) + 1;
+            transactionTemplate.executeWithoutResult(status -> userRepository.findById(userId).orElseThrow());
+            transactionTemplate.executeWithoutResult(status ->
+                    requestRepository.findAllByRequesterId(userId, CREATED_DESC));
+            transactionTemplate.executeWithoutResult(status -> requestRepository.findById(requestId).orElseThrow());
+        }
+    }
+
+    private void fill() {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{"user" + i, "user" + i + "@email.com"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (name, email) values (?, ?)", users);
+        List<Object[]> requests = new ArrayList<>();
+        for (int i = 1; i <= USERS * REQUESTS_PER_USER; i++) {
+            requests.add(new Object[]{"request" + i, i % USERS + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into requests (description, requester_id, created) " +
+                "values (?, ?, current_timestamp)", requests);
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 1; i <= USERS * REQUESTS_PER_USER * ITEMS_PER_REQUEST; i++) {
+            items.add(new Object[]{"item" + i, "description", true, i % USERS + 1,
+                    i % (USERS * REQUESTS_PER_USER) + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into items (name, description, available, owner_id, request_id) " +
+                "values (?, ?, ?, ?, ?)", items);
+    }
+}
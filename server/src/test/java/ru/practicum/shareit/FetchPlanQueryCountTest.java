@@ -0,0 +1,182 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Число SQL-запросов на эндпоинт не зависит от числа вещей, бронирований и комментариев в ответе.
+// Ленивые связи, загруженные вне графа сущности, увеличили бы счётчик
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:fetchplan;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureMockMvc
+class FetchPlanQueryCountTest {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final int ITEMS = 5;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRequestRepository requestRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private User owner;
+    private User booker;
+    private final List<ItemRequest> requests = new ArrayList<>();
+    private final List<Item> items = new ArrayList<>();
+    private final List<Booking> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void fill() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@mail.ru").build());
+        User author = userRepository.save(User.builder().name("author").email("author@mail.ru").build());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ITEMS; i++) {
+            ItemRequest request = requestRepository.save(ItemRequest.builder().description("Нужна дрель " + i)
+                    .requester(booker).build());
+            requests.add(request);
+            Item item = itemRepository.save(Item.builder().name("Дрель " + i).description("Дрель " + i)
+                    .available(true).owner(owner).request(request).build());
+            items.add(item);
+            for (int day = -2; day <= 2; day++) {
+                bookings.add(bookingRepository.save(Booking.builder().item(item)
+                        .booker(day % 2 == 0 ? booker : author).status(BookingStatus.APPROVED)
+                        .start(now.plusDays(day * 2L)).end(now.plusDays(day * 2L + 1)).build()));
+            }
+            commentRepository.save(Comment.builder().text("Хорошая").item(item).author(author).build());
+            commentRepository.save(Comment.builder().text("Плохая").item(item).author(booker).build());
+        }
+    }
+
+    @AfterEach
+    void clean() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void bookingListsShouldLoadItemAndBookerInOneQuery() throws Exception {
+        Statistics statistics = statistics();
+
+        mvc.perform(get("/bookings").header(USER_HEADER, booker.getId()).param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(bookings.size() / 5 * 3));
+        assertEquals(2, statistics.getPrepareStatementCount(), "Пользователь и страница бронирований");
+
+        statistics.clear();
+        mvc.perform(get("/bookings/owner").header(USER_HEADER, owner.getId()).param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(20));
+        assertEquals(2, statistics.getPrepareStatementCount(), "Пользователь и страница бронирований");
+    }
+
+    @Test
+    void bookingDetailShouldLoadItemAndBookerInOneQuery() throws Exception {
+        Statistics statistics = statistics();
+
+        mvc.perform(get("/bookings/{bookingId}", bookings.getFirst().getId()).header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booker.name").exists())
+                .andExpect(jsonPath("$.item.name").exists());
+        assertEquals(1, statistics.getPrepareStatementCount(), "Бронирование с вещью и арендатором");
+    }
+
+    @Test
+    void itemDetailShouldLoadCommentAuthorsInOneQuery() throws Exception {
+        Statistics statistics = statistics();
+
+        mvc.perform(get("/items/{itemId}", items.getFirst().getId()).header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments.length()").value(2))
+                .andExpect(jsonPath("$.lastBooking.booker.name").exists())
+                .andExpect(jsonPath("$.nextBooking.booker.name").exists());
+        assertEquals(4, statistics.getPrepareStatementCount(), "Вещь, комментарии, последнее и следующее бронирования");
+
+        statistics.clear();
+        mvc.perform(get("/items").header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ITEMS));
+        assertEquals(4, statistics.getPrepareStatementCount(), "Пользователь, вещи, комментарии и бронирования");
+    }
+
+    @Test
+    void requestDetailShouldLoadItemsInOneQuery() throws Exception {
+        Statistics statistics = statistics();
+
+        mvc.perform(get("/requests/{requestId}", requests.getFirst().getId()).header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1));
+        assertEquals(2, statistics.getPrepareStatementCount(), "Пользователь и запрос с вещами");
+    }
+
+    @Test
+    void requestListsShouldLoadItemsInOneQuery() throws Exception {
+        Statistics statistics = statistics();
+
+        mvc.perform(get("/requests").header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ITEMS))
+                .andExpect(jsonPath("$[0].items.length()").value(1));
+        assertEquals(3, statistics.getPrepareStatementCount(), "Пользователь, запросы и их вещи");
+
+        statistics.clear();
+        mvc.perform(get("/requests/all").header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ITEMS))
+                .andExpect(jsonPath("$[0].items.length()").value(1));
+        assertEquals(3, statistics.getPrepareStatementCount(), "Пользователь, запросы и их вещи");
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Индексы в памяти и кеш поиска согласованы с базой после изменений, которые база выполняет сама.
+// Каскадное удаление вещей владельца проверяется на схеме из schema.sql
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:itemindex;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.schema-locations=classpath:schema.sql",
+        "spring.jpa.show-sql=false"})
+@DirtiesContext
+class ItemIndexConsistencyTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void clean() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void deleteOwnerShouldRemoveItemsFromSearchAndSuggest() {
+        UserDto owner = userService.create(UserDto.builder().name("owner").email("owner@mail.ru").build());
+        UserDto other = userService.create(UserDto.builder().name("other").email("other@mail.ru").build());
+        ItemDtoOut deleted = itemService.add(owner.getId(), item("Дрель ударная"));
+        ItemDtoOut kept = itemService.add(other.getId(), item("Дрель простая"));
+        assertTrue(itemSearchIndex.isReady());
+        assertEquals(List.of(deleted.getId(), kept.getId()), ids(itemService.findItemsOnText("дрель", "id",
+                false, 0, 10)));
+        assertEquals(List.of("ударная"), itemService.suggest("уда", 10));
+
+        userService.delete(owner.getId());
+
+        assertEquals(List.of(kept.getId()), ids(itemService.findItemsOnText("дрель", "id", false, 0, 10)));
+        assertEquals(List.of(kept.getId()), ids(itemService.findItemsOnText("дрель", "id", false, 0, 1)));
+        assertEquals(List.of(), itemService.suggest("уда", 10));
+    }
+
+    private static ItemDto item(String name) {
+        return ItemDto.builder().name(name).description(name).available(true).build();
+    }
+
+    private static List<Long> ids(Collection<ItemDtoOut> items) {
+        return items.stream().map(ItemDtoOut::getId).toList();
+    }
+}
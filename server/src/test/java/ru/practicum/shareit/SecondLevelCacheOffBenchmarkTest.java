@@ -0,0 +1,7 @@
+package ru.practicum.shareit;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:secondlevelcacheoff;DB_CLOSE_DELAY=-1")
+class SecondLevelCacheOffBenchmarkTest extends AbstractSecondLevelCacheBenchmarkTest {
+}
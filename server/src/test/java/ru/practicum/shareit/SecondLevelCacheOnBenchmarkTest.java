@@ -0,0 +1,10 @@
+package ru.practicum.shareit;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:secondlevelcacheon;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true"})
+class SecondLevelCacheOnBenchmarkTest extends AbstractSecondLevelCacheBenchmarkTest {
+}
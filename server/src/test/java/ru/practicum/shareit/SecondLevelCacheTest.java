@@ -0,0 +1,134 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Кеш второго уровня включается только здесь: регионы JCache общие для всех контекстов в JVM.
+// Каждый вызов репозитория выполняется в своей транзакции, поэтому повторное чтение идёт мимо сессии
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:secondlevelcache;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.schema-locations=classpath:schema.sql",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true"})
+@DirtiesContext
+class SecondLevelCacheTest {
+    private static final Sort CREATED_DESC = Sort.by(Sort.Direction.DESC, "created");
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRequestRepository requestRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserService userService;
+
+    private User owner;
+    private User requester;
+    private ItemRequest request;
+
+    @BeforeEach
+    void fill() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build());
+        requester = userRepository.save(User.builder().name("requester").email("requester@mail.ru").build());
+        request = requestRepository.save(ItemRequest.builder().description("Нужна дрель").requester(requester).build());
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void clean() {
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findByIdShouldReadUserFromCache() {
+        Statistics statistics = statistics();
+
+        userRepository.findById(owner.getId()).orElseThrow();
+        User cached = userRepository.findById(owner.getId()).orElseThrow();
+
+        assertEquals("owner", cached.getName());
+        assertEquals(1, statistics.getPrepareStatementCount(), "Пользователь читается из базы один раз");
+        assertEquals(1, statistics.getDomainDataRegionStatistics("users").getHitCount());
+    }
+
+    @Test
+    void findAllByRequesterIdShouldUseQueryCache() {
+        Statistics statistics = statistics();
+
+        requestRepository.findAllByRequesterId(requester.getId(), CREATED_DESC);
+        List<ItemRequest> cached = requestRepository.findAllByRequesterId(requester.getId(), CREATED_DESC);
+
+        assertEquals(List.of(request.getId()), cached.stream().map(ItemRequest::getId).toList());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(1, statistics.getPrepareStatementCount(), "Запросы пользователя читаются из базы один раз");
+    }
+
+    @Test
+    void findAllByRequesterIdShouldSeeNewRequest() {
+        requestRepository.findAllByRequesterId(requester.getId(), CREATED_DESC);
+        requestRepository.save(ItemRequest.builder().description("Нужна пила").requester(requester).build());
+
+        List<ItemRequest> requests = requestRepository.findAllByRequesterId(requester.getId(), CREATED_DESC);
+
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void updateShouldReplaceCachedUser() {
+        userRepository.findById(owner.getId()).orElseThrow();
+        owner.setName("updated");
+        userRepository.save(owner);
+
+        assertEquals("updated", userRepository.findById(owner.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void deleteUserShouldEvictOwnedItems() {
+        Item item = itemRepository.save(Item.builder().name("Дрель").description("Простая дрель").available(true)
+                .owner(owner).build());
+        itemRepository.findById(item.getId()).orElseThrow();
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+
+        userService.delete(owner.getId());
+
+        assertTrue(itemRepository.findById(item.getId()).isEmpty());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
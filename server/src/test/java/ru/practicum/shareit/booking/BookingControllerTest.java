@@ -6,21 +6,31 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserMapper;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -139,6 +149,43 @@ class BookingControllerTest {
         assertEquals(objectMapper.writeValueAsString(List.of(bookingDtoOut)), result);
     }
 
+    @Test
+    @SneakyThrows
+    void getAllAfterCursorShouldReturnNextCursor() {
+        KeysetCursor after = new KeysetCursor(LocalDateTime.of(2030, 1, 1, 10, 0), 7L);
+        when(bookingService.findByBooker(user.getId(), "ALL", after, 1)).thenReturn(List.of(bookingDtoOut));
+
+        mockMvc.perform(get("/bookings")
+                        .param("after", after.encode())
+                        .param("size", "1")
+                        .header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", new KeysetCursor(bookingDtoOut.getStart(), bookingDtoOut.getId()).encode()))
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of(bookingDtoOut))));
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllByOwnerFirstCursorPageWithoutNextCursor() {
+        when(bookingService.findByOwner(user.getId(), "ALL", (KeysetCursor) null, 10))
+                .thenReturn(List.of(bookingDtoOut));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .param("after", "")
+                        .header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllWhenCursorIsNotValid() {
+        mockMvc.perform(get("/bookings")
+                        .param("after", "not-a-cursor")
+                        .header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @SneakyThrows
     void getAllByOwner() {
@@ -161,4 +208,39 @@ class BookingControllerTest {
 
         assertEquals(objectMapper.writeValueAsString(List.of(bookingDtoOut)), result);
     }
+
+    @Test
+    @SneakyThrows
+    void streamByOwnerShouldWriteNdjson() {
+        doAnswer(invocation -> {
+            Consumer<BookingDtoOut> consumer = invocation.getArgument(2);
+            consumer.accept(bookingDtoOut);
+            consumer.accept(bookingDtoOut);
+            return null;
+        }).when(bookingService).streamByOwner(eq(user.getId()), eq("ALL"), any());
+
+        String result = mockMvc.perform(get("/bookings/owner")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String line = objectMapper.writeValueAsString(bookingDtoOut);
+        assertEquals(line + "\n" + line + "\n", result);
+    }
+
+    @Test
+    @SneakyThrows
+    void streamByBookerWhenUserNotFoundShouldReturnNotFound() {
+        doThrow(new NotFoundException("Пользователь не найден"))
+                .when(bookingService).streamByBooker(eq(user.getId()), eq("ALL"), any());
+
+        mockMvc.perform(get("/bookings")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isNotFound());
+    }
 }
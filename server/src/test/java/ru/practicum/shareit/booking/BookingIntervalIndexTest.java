@@ -0,0 +1,96 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingIntervalIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private final BookingIntervalIndex index = new BookingIntervalIndex();
+
+    @Test
+    void overlapsShouldTreatIntervalsAsHalfOpen() {
+        index.put(1L, 10L, at(10), at(20));
+
+        assertTrue(index.overlaps(1L, null, at(15), at(25)));
+        assertTrue(index.overlaps(1L, null, at(5), at(11)));
+        assertTrue(index.overlaps(1L, null, at(12), at(13)));
+        assertTrue(index.overlaps(1L, null, at(0), at(30)));
+        assertFalse(index.overlaps(1L, null, at(20), at(30)));
+        assertFalse(index.overlaps(1L, null, at(0), at(10)));
+        assertFalse(index.overlaps(2L, null, at(15), at(25)));
+    }
+
+    @Test
+    void overlapsShouldFindContainingIntervalWhenLoadedIntervalsOverlap() {
+        index.put(1L, 10L, at(1), at(10));
+        index.put(1L, 11L, at(2), at(3));
+
+        assertTrue(index.overlaps(1L, null, at(5), at(6)));
+        assertTrue(index.overlaps(1L, 11L, at(5), at(6)));
+        assertFalse(index.overlaps(1L, 10L, at(5), at(6)));
+        assertFalse(index.reserve(1L, 12L, at(5), at(6)));
+        assertTrue(index.reserve(1L, 12L, at(10), at(12)));
+    }
+
+    @Test
+    void overlapsShouldIgnoreExcludedBooking() {
+        index.put(1L, 10L, at(10), at(20));
+        index.put(1L, 11L, at(0), at(5));
+
+        assertFalse(index.overlaps(1L, 10L, at(12), at(30)));
+        assertTrue(index.overlaps(1L, 10L, at(4), at(30)));
+    }
+
+    @Test
+    void reserveShouldRejectOverlapAndKeepIndexUnchanged() {
+        assertTrue(index.reserve(1L, 10L, at(10), at(20)));
+        assertFalse(index.reserve(1L, 11L, at(19), at(25)));
+        assertTrue(index.reserve(1L, 12L, at(20), at(25)));
+
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void removeShouldReleaseInterval() {
+        index.reserve(1L, 10L, at(10), at(20));
+        index.remove(10L);
+
+        assertTrue(index.reserve(1L, 11L, at(10), at(20)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void overlapsShouldMatchLinearScan() {
+        Random random = new Random(42);
+        int[][] reserved = new int[500][];
+        int count = 0;
+        for (int i = 0; i < 2_000; i++) {
+            int start = random.nextInt(10_000);
+            int end = start + 1 + random.nextInt(50);
+            boolean expected = false;
+            for (int j = 0; j < count; j++) {
+                if (reserved[j][0] < end && start < reserved[j][1]) {
+                    expected = true;
+                    break;
+                }
+            }
+            assertEquals(expected, index.overlaps(1L, null, at(start), at(end)));
+            if (!expected && count < reserved.length) {
+                assertTrue(index.reserve(1L, (long) i, at(start), at(end)));
+                reserved[count++] = new int[]{start, end};
+            }
+        }
+    }
+
+    private LocalDateTime at(int minutes) {
+        return BASE.plusMinutes(minutes);
+    }
+}
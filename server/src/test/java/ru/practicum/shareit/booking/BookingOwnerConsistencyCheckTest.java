@@ -0,0 +1,44 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingOwnerConsistencyCheckTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Test
+    void checkShouldOnlyCountMismatchesByDefault() {
+        when(bookingRepository.countOwnerIdMismatches()).thenReturn(2L);
+
+        new BookingOwnerConsistencyCheck(bookingRepository, false).check();
+
+        verify(bookingRepository, never()).repairOwnerIds();
+    }
+
+    @Test
+    void checkShouldRepairWhenEnabled() {
+        when(bookingRepository.countOwnerIdMismatches()).thenReturn(2L);
+
+        new BookingOwnerConsistencyCheck(bookingRepository, true).check();
+
+        verify(bookingRepository).repairOwnerIds();
+    }
+
+    @Test
+    void checkShouldNotRepairWithoutMismatches() {
+        when(bookingRepository.countOwnerIdMismatches()).thenReturn(0L);
+
+        new BookingOwnerConsistencyCheck(bookingRepository, true).check();
+
+        verify(bookingRepository, never()).repairOwnerIds();
+    }
+}
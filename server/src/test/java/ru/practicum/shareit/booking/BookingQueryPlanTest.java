@@ -0,0 +1,210 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Запросы BookingRepository должны использовать индексы из schema.sql, а не полный просмотр таблиц.
+// Схема создаётся из schema.sql, SQL каждого метода перехватывается и проверяется через EXPLAIN
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:schema.sql",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "ru.practicum.shareit.booking.BookingQueryPlanTest$SqlRecorder"})
+class BookingQueryPlanTest {
+    private static final int USERS = 50;
+    private static final int ITEMS = 200;
+    private static final int BOOKINGS = 5_000;
+    private static final long USER_ID = 1L;
+    private static final long ITEM_ID = 1L;
+    private static final Pattern BOOKINGS_ACCESS = Pattern.compile("\"PUBLIC\"\\.\"BOOKINGS\" \"\\w+\"\\s+/\\* PUBLIC\\.(\\w+)");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // ANALYZE фиксирует транзакцию, поэтому данные заполняются один раз на контекст
+    @BeforeEach
+    void fillTables() {
+        if (jdbcTemplate.queryForObject("select count(*) from bookings", Long.class) > 0) {
+            return;
+        }
+        dropForeignKeys();
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{"user" + i, "user" + i + "@email.com"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (name, email) values (?, ?)", users);
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 1; i <= ITEMS; i++) {
+            items.add(new Object[]{"item" + i, "description", true, i % USERS + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into items (name, description, available, owner_id) values (?, ?, ?, ?)",
+                items);
+        List<Object[]> bookings = new ArrayList<>();
+        for (int i = 1; i <= BOOKINGS; i++) {
+            int itemId = i % ITEMS + 1;
+            bookings.add(new Object[]{start.plusHours(i), start.plusHours(i + 1), itemId, i % USERS + 1,
+                    itemId % USERS + 1, BookingStatus.values()[i % BookingStatus.values().length].name()});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (start_date, end_date, item_id, booker_id, owner_id, status) " +
+                "values (?, ?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Test
+    void itemServiceFindersShouldUseIndexes() {
+        assertIndexed(() -> bookingRepository.findLastBookings(List.of(ITEM_ID, ITEM_ID + 1), BookingStatus.APPROVED,
+                now()));
+        assertIndexed(() -> bookingRepository.findNextBookings(List.of(ITEM_ID, ITEM_ID + 1), BookingStatus.APPROVED,
+                now()));
+        assertIndexed(() -> bookingRepository.findNeighbourViews(List.of(ITEM_ID, ITEM_ID + 1), BookingStatus.APPROVED,
+                now()));
+        assertIndexed(() -> bookingRepository.findByBookerIdAndItemIdAndEndBefore(USER_ID, ITEM_ID, now()));
+        assertIndexed(() -> bookingRepository.existsOverlapping(ITEM_ID, null, BookingStatus.APPROVED, now(),
+                now().plusDays(1)));
+        assertIndexed(() -> bookingRepository.findIntervalsByItemId(ITEM_ID,
+                List.of(BookingStatus.APPROVED, BookingStatus.WAITING)));
+    }
+
+    @Test
+    void bookerFindersShouldUseIndexes() {
+        assertIndexed(() -> bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(USER_ID,
+                now(), now(), page()));
+        assertIndexed(() -> bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(USER_ID, now(), page()));
+        assertIndexed(() -> bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(USER_ID, now(), page()));
+        assertIndexed(() -> bookingRepository.findByBookerIdAndStatusOrderByStartDesc(USER_ID,
+                BookingStatus.WAITING, page()));
+        assertIndexed(() -> bookingRepository.findByBookerIdOrderByStartDesc(USER_ID, page()));
+        assertIndexed(() -> bookingRepository.findPageByBooker(USER_ID, now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findCurrentPageByBooker(USER_ID, now(), now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findPastPageByBooker(USER_ID, now(), now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findFuturePageByBooker(USER_ID, now(), now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findPageByBookerAndStatus(USER_ID, BookingStatus.WAITING, now(), 10L,
+                Limit.of(10)));
+        assertIndexed(() -> toList(bookingRepository.streamByBooker(USER_ID)));
+        assertIndexed(() -> toList(bookingRepository.streamCurrentByBooker(USER_ID, now())));
+        assertIndexed(() -> toList(bookingRepository.streamPastByBooker(USER_ID, now())));
+        assertIndexed(() -> toList(bookingRepository.streamFutureByBooker(USER_ID, now())));
+        assertIndexed(() -> toList(bookingRepository.streamByBookerAndStatus(USER_ID, BookingStatus.WAITING)));
+    }
+
+    @Test
+    void ownerFindersShouldUseIndexes() {
+        assertIndexed(() -> bookingRepository.findByOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(USER_ID,
+                now(), now(), page()));
+        assertIndexed(() -> bookingRepository.findByOwnerIdAndEndBeforeOrderByStartDesc(USER_ID, now(), page()));
+        assertIndexed(() -> bookingRepository.findByOwnerIdAndStartAfterOrderByStartDesc(USER_ID, now(), page()));
+        assertIndexed(() -> bookingRepository.findByOwnerIdAndStatusOrderByStartDesc(USER_ID,
+                BookingStatus.WAITING, page()));
+        assertIndexed(() -> bookingRepository.findByOwnerIdOrderByStartDesc(USER_ID, page()));
+        assertIndexed(() -> bookingRepository.findPageByOwner(USER_ID, now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findCurrentPageByOwner(USER_ID, now(), now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findPastPageByOwner(USER_ID, now(), now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findFuturePageByOwner(USER_ID, now(), now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findPageByOwnerAndStatus(USER_ID, BookingStatus.WAITING, now(), 10L,
+                Limit.of(10)));
+        assertIndexed(() -> toList(bookingRepository.streamByOwner(USER_ID)));
+        assertIndexed(() -> toList(bookingRepository.streamCurrentByOwner(USER_ID, now())));
+        assertIndexed(() -> toList(bookingRepository.streamPastByOwner(USER_ID, now())));
+        assertIndexed(() -> toList(bookingRepository.streamFutureByOwner(USER_ID, now())));
+        assertIndexed(() -> toList(bookingRepository.streamByOwnerAndStatus(USER_ID, BookingStatus.WAITING)));
+    }
+
+    private void assertIndexed(QueryCall call) {
+        SqlRecorder.STATEMENTS.get().clear();
+        call.run();
+        List<String> statements = List.copyOf(SqlRecorder.STATEMENTS.get());
+        assertFalse(statements.isEmpty(), "Запрос не выполнен");
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertFalse(plan.contains(".tableScan"), () -> "Полный просмотр таблицы:\n" + sql + "\n" + plan);
+            Matcher access = BOOKINGS_ACCESS.matcher(plan);
+            if (access.find()) {
+                assertTrue(access.group(1).endsWith("_IDX"), () -> "Индекс не из schema.sql:\n" + sql + "\n" + plan);
+            }
+        }
+    }
+
+    // H2 создаёт индексы для внешних ключей, а PostgreSQL нет. Без ограничений в H2, как и в PostgreSQL,
+    // остаются только первичные ключи и индексы из schema.sql
+    private void dropForeignKeys() {
+        jdbcTemplate.queryForList("select table_name, constraint_name from information_schema.table_constraints " +
+                        "where constraint_type = 'FOREIGN KEY' and table_schema = 'PUBLIC'")
+                .forEach(constraint -> jdbcTemplate.execute("alter table " + constraint.get("TABLE_NAME") +
+                        " drop constraint " + constraint.get("CONSTRAINT_NAME")));
+    }
+
+    // Параметры не влияют на выбор индекса в H2, поэтому вместо них подставляется null
+    private String explain(String sql) {
+        return jdbcTemplate.execute("explain " + sql, (PreparedStatement statement) -> {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        });
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.of(2030, 3, 1, 0, 0);
+    }
+
+    private static Pageable page() {
+        return PageRequest.of(0, 10);
+    }
+
+    private static List<Booking> toList(Stream<Booking> bookings) {
+        try (bookings) {
+            return bookings.toList();
+        }
+    }
+
+    @FunctionalInterface
+    private interface QueryCall {
+        Object call();
+
+        default void run() {
+            call();
+        }
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+        static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.get().add(sql);
+            return sql;
+        }
+    }
+}
@@ -6,15 +6,23 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.interval.BookingIntervalView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.owner.ItemBookingView;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
@@ -83,6 +91,14 @@ class BookingRepositoryTest {
         bookingRepository.deleteAll();
     }
 
+    @Test
+    void findAllByBookerIdFromOffsetNotAlignedToPageSize() {
+        List<Booking> bookings = bookingRepository.findByBookerIdOrderByStartDesc(user.getId(),
+                OffsetPageRequest.of(1, 2));
+
+        assertEquals(List.of(booking.getId(), pastBooking.getId()), bookings.stream().map(Booking::getId).toList());
+    }
+
     @Test
     void findAllByBookerId() {
         List<Booking> bookings = bookingRepository.findByBookerIdOrderByStartDesc(1L, PageRequest.of(0, 10));
@@ -156,14 +172,14 @@ class BookingRepositoryTest {
 
     @Test
     void findAllByOwnerId() {
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdOrderByStartDesc(2L, PageRequest.of(0, 10));
+        List<Booking> bookings = bookingRepository.findByOwnerIdOrderByStartDesc(2L, PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 3);
     }
 
     @Test
     void findAllCurrentBookingsByOwnerId() {
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(2L,
+        List<Booking> bookings = bookingRepository.findByOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(2L,
                 LocalDateTime.now(), LocalDateTime.now(), PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
@@ -172,7 +188,7 @@ class BookingRepositoryTest {
 
     @Test
     void findAllPastBookingsByOwnerId() {
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDesc(2L, LocalDateTime.now(),
+        List<Booking> bookings = bookingRepository.findByOwnerIdAndEndBeforeOrderByStartDesc(2L, LocalDateTime.now(),
                 PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
@@ -181,7 +197,7 @@ class BookingRepositoryTest {
 
     @Test
     void findAllFutureBookingsByOwnerId() {
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc(2L, LocalDateTime.now(),
+        List<Booking> bookings = bookingRepository.findByOwnerIdAndStartAfterOrderByStartDesc(2L, LocalDateTime.now(),
                 PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
@@ -199,7 +215,7 @@ class BookingRepositoryTest {
                 .build();
 
         bookingRepository.save(waitingBooking);
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(2L,
+        List<Booking> bookings = bookingRepository.findByOwnerIdAndStatusOrderByStartDesc(2L,
                 BookingStatus.WAITING, PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
@@ -217,13 +233,35 @@ class BookingRepositoryTest {
                 .build();
 
         bookingRepository.save(rejectedBooking);
-        List<Booking> bookings = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(2L,
+        List<Booking> bookings = bookingRepository.findByOwnerIdAndStatusOrderByStartDesc(2L,
                 BookingStatus.REJECTED, PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getStatus(), BookingStatus.REJECTED);
     }
 
+    @Test
+    void streamCurrentBookingsByOwnerId() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings;
+        try (Stream<Booking> stream = bookingRepository.streamCurrentByOwner(2L, now)) {
+            bookings = stream.toList();
+        }
+
+        assertEquals(1, bookings.size());
+        assertEquals(2L, bookings.get(0).getItem().getOwner().getId());
+    }
+
+    @Test
+    void streamAllBookingsByBookerId() {
+        List<Booking> bookings;
+        try (Stream<Booking> stream = bookingRepository.streamByBooker(1L)) {
+            bookings = stream.toList();
+        }
+
+        assertEquals(List.of(3L, 1L, 2L), bookings.stream().map(Booking::getId).toList());
+    }
+
     @Test
     void findAllByUserBookings() {
         List<Booking> bookings = bookingRepository.findByBookerIdAndItemIdAndEndBefore(1L, 1L, LocalDateTime.now());
@@ -231,4 +269,126 @@ class BookingRepositoryTest {
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getStatus(), BookingStatus.APPROVED);
     }
-}
\ No newline at end of file
+
+    @Test
+    void findLastAndNextBookingsByItemIds() {
+        List<Booking> lastBookings = bookingRepository.findLastBookings(List.of(item.getId()), BookingStatus.APPROVED,
+                LocalDateTime.now());
+        List<Booking> nextBookings = bookingRepository.findNextBookings(List.of(item.getId()), BookingStatus.APPROVED,
+                LocalDateTime.now());
+
+        assertEquals(1, lastBookings.size());
+        assertEquals(booking.getId(), lastBookings.get(0).getId());
+        assertEquals(1, nextBookings.size());
+        assertEquals(futureBooking.getId(), nextBookings.get(0).getId());
+    }
+
+    @Test
+    void findNeighbourViewsByItemIds() {
+        List<ItemBookingView> bookings = bookingRepository.findNeighbourViews(List.of(item.getId()),
+                BookingStatus.APPROVED, LocalDateTime.now());
+
+        assertEquals(List.of(booking.getId(), futureBooking.getId()),
+                bookings.stream().map(ItemBookingView::getId).sorted().toList());
+        assertEquals(user.getEmail(), bookings.get(0).getBookerEmail());
+        assertEquals(item.getId(), bookings.get(0).getItemId());
+    }
+
+    @Test
+    void findNextBookingsShouldSkipNotApproved() {
+        futureBooking.setStatus(BookingStatus.REJECTED);
+        bookingRepository.save(futureBooking);
+
+        List<Booking> nextBookings = bookingRepository.findNextBookings(List.of(item.getId()), BookingStatus.APPROVED,
+                LocalDateTime.now());
+
+        assertTrue(nextBookings.isEmpty());
+    }
+
+    @Test
+    void existsOverlappingApprovedBooking() {
+        Long itemId = item.getId();
+
+        assertTrue(bookingRepository.existsOverlapping(itemId, null, BookingStatus.APPROVED,
+                futureBooking.getStart().plusHours(1L), futureBooking.getEnd().plusHours(1L)));
+        assertFalse(bookingRepository.existsOverlapping(itemId, futureBooking.getId(), BookingStatus.APPROVED,
+                futureBooking.getStart().plusHours(1L), futureBooking.getEnd().plusHours(1L)));
+        assertFalse(bookingRepository.existsOverlapping(itemId, null, BookingStatus.APPROVED,
+                futureBooking.getEnd().plusSeconds(1L), futureBooking.getEnd().plusDays(1L)));
+    }
+
+    @Test
+    void findAllApprovedIntervals() {
+        try (Stream<BookingIntervalView> intervals = bookingRepository.findAllIntervalsByStatus(BookingStatus.APPROVED)) {
+            List<BookingIntervalView> list = intervals.toList();
+
+            assertEquals(3, list.size());
+            assertEquals(item.getId(), list.get(0).getItemId());
+            assertTrue(list.stream()
+                    .filter(interval -> interval.getId().equals(booking.getId()))
+                    .allMatch(interval -> interval.getStart().isBefore(interval.getEnd())));
+        }
+    }
+
+    @Test
+    void findIntervalsByItemIdOrderedByStart() {
+        List<BookingIntervalView> intervals = bookingRepository.findIntervalsByItemId(item.getId(),
+                List.of(BookingStatus.APPROVED, BookingStatus.WAITING));
+
+        assertEquals(List.of(pastBooking.getId(), booking.getId(), futureBooking.getId()),
+                intervals.stream().map(BookingIntervalView::getId).toList());
+        assertEquals(BookingStatus.APPROVED, intervals.get(0).getStatus());
+    }
+
+    @Test
+    void findPagesByBookerAfterCursor() {
+        Booking sameStart = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.WAITING)
+                .start(futureBooking.getStart())
+                .end(futureBooking.getEnd())
+                .build());
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        List<Booking> first = bookingRepository.findByBookerIdOrderByStartDesc(user.getId(),
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+        Booking last = first.get(1);
+        List<Booking> second = bookingRepository.findPageByBooker(user.getId(), last.getStart(), last.getId(),
+                Limit.of(2));
+
+        assertEquals(List.of(sameStart.getId(), futureBooking.getId()), first.stream().map(Booking::getId).toList());
+        assertEquals(List.of(booking.getId(), pastBooking.getId()), second.stream().map(Booking::getId).toList());
+    }
+
+    @Test
+    void findPageByOwnerWithState() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Booking> page = bookingRepository.findPastPageByOwner(owner.getId(), now, now.plusYears(1), 0L,
+                Limit.of(10));
+
+        assertEquals(List.of(pastBooking.getId()), page.stream().map(Booking::getId).toList());
+    }
+
+    @Test
+    void ownerIdShouldBeCopiedFromItemOnSave() {
+        assertEquals(owner.getId(), bookingRepository.findById(booking.getId()).orElseThrow().getOwnerId());
+    }
+
+    @Test
+    void repairOwnerIdsShouldFixDivergedRows() {
+        testEntityManager.getEntityManager()
+                .createQuery("update Booking b set b.ownerId = :userId where b.id = :id")
+                .setParameter("userId", user.getId())
+                .setParameter("id", pastBooking.getId())
+                .executeUpdate();
+
+        assertEquals(1, bookingRepository.countOwnerIdMismatches());
+        assertEquals(1, bookingRepository.repairOwnerIds());
+        testEntityManager.clear();
+        assertEquals(owner.getId(), bookingRepository.findById(pastBooking.getId()).orElseThrow().getOwnerId());
+        assertEquals(0, bookingRepository.countOwnerIdMismatches());
+    }
+}
@@ -1,32 +1,47 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exception.AccessDeniedException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.availability.ItemAvailabilityCache;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +56,15 @@ class BookingServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Spy
+    private BookingIntervalIndex bookingIntervalIndex = new BookingIntervalIndex();
+
+    @Spy
+    private ItemAvailabilityCache itemAvailabilityCache = new ItemAvailabilityCache(1_000);
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -100,6 +124,11 @@ class BookingServiceImplTest {
             .end(LocalDateTime.now().minusDays(1L))
             .build();
 
+    @BeforeEach
+    void init() {
+        bookingIntervalIndex.markReady();
+    }
+
     @Test
     void create() {
         BookingDtoOut expectedBookingDtoOut = BookingMapper.toBookingOut(BookingMapper.toBooking(user, item, bookingDto));
@@ -155,6 +184,7 @@ class BookingServiceImplTest {
         BookingDtoOut actualBookingDtoOut = bookingService.update(owner.getId(), bookingWaiting.getId(), true);
 
         assertEquals(BookingStatus.APPROVED, actualBookingDtoOut.getStatus());
+        verify(itemAvailabilityCache).invalidate(item.getId());
     }
 
     @Test
@@ -167,6 +197,50 @@ class BookingServiceImplTest {
         assertEquals(BookingStatus.REJECTED, actualBookingDtoOut.getStatus());
     }
 
+    @Test
+    void createWhenItemIsAlreadyBooked() {
+        bookingIntervalIndex.put(item.getId(), 5L, bookingDto.getStart().minusHours(1L), bookingDto.getStart().plusHours(1L));
+        when(userService.findById(userDto.getId())).thenReturn(userDto);
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+
+        ConflictException conflictException = assertThrows(ConflictException.class,
+                () -> bookingService.add(userDto.getId(), bookingDto));
+
+        assertEquals(conflictException.getMessage(), "Вещь уже забронирована на этот период");
+    }
+
+    @Test
+    void updateWhenApprovedBookingsOverlap() {
+        bookingIntervalIndex.put(item.getId(), 5L, bookingWaiting.getStart().plusHours(1L), bookingWaiting.getEnd());
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(bookingWaiting));
+
+        assertThrows(ConflictException.class, () -> bookingService.update(owner.getId(), bookingWaiting.getId(), true));
+        assertEquals(BookingStatus.WAITING, bookingWaiting.getStatus());
+    }
+
+    @Test
+    void updateWhenOverlapIsApprovedByAnotherInstance() {
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(bookingWaiting));
+        when(bookingRepository.existsOverlapping(item.getId(), bookingWaiting.getId(), BookingStatus.APPROVED,
+                bookingWaiting.getStart(), bookingWaiting.getEnd())).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> bookingService.update(owner.getId(), bookingWaiting.getId(), true));
+        verify(itemRepository).findForUpdateById(item.getId());
+        assertFalse(bookingIntervalIndex.overlaps(item.getId(), null, bookingWaiting.getStart(),
+                bookingWaiting.getEnd()));
+    }
+
+    @Test
+    void updateWhenApprovedBookingIsRejected() {
+        bookingIntervalIndex.put(item.getId(), booking.getId(), booking.getStart(), booking.getEnd());
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+
+        bookingService.update(owner.getId(), booking.getId(), false);
+
+        assertFalse(bookingIntervalIndex.overlaps(item.getId(), null, booking.getStart(), booking.getEnd()));
+    }
+
     @Test
     void updateWhenUserIsNotItemOwner() {
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
@@ -210,7 +284,7 @@ class BookingServiceImplTest {
     @Test
     void getAllByBookerWhenBookingStateAll() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(userService.existsById(user.getId())).thenReturn(true);
         when(bookingRepository.findByBookerIdOrderByStartDesc(anyLong(), any(Pageable.class))).thenReturn(List.of(booking));
 
         List<BookingDtoOut> actualBookingsDtoOut = bookingService.findByBooker(user.getId(), "ALL", 0, 10);
@@ -221,7 +295,7 @@ class BookingServiceImplTest {
     @Test
     void getAllByBookerWhenBookingStateCURRENT() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(userService.existsById(user.getId())).thenReturn(true);
         when(bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(anyLong(), any(LocalDateTime.class),
                 any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
@@ -234,7 +308,7 @@ class BookingServiceImplTest {
     @Test
     void getAllByBookerWhenBookingStatePAST() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(userService.existsById(user.getId())).thenReturn(true);
         when(bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
@@ -243,10 +317,35 @@ class BookingServiceImplTest {
         assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
     }
 
+    @Test
+    void getPageByBookerAfterCursor() {
+        KeysetCursor after = new KeysetCursor(LocalDateTime.of(2030, 1, 1, 10, 0), 7L);
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(bookingRepository.findPageByBookerAndStatus(eq(user.getId()), eq(BookingStatus.WAITING),
+                eq(after.time()), eq(7L), eq(Limit.of(10))))
+                .thenReturn(List.of(booking));
+
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findByBooker(user.getId(), "WAITING", after, 10);
+
+        assertEquals(List.of(BookingMapper.toBookingOut(booking)), actualBookingsDtoOut);
+    }
+
+    @Test
+    void getFirstPageByOwner() {
+        when(userService.existsById(owner.getId())).thenReturn(true);
+        when(bookingRepository.findByOwnerIdAndStartAfterOrderByStartDesc(eq(owner.getId()),
+                any(LocalDateTime.class), eq(new OffsetPageRequest(0, 5, Sort.by(Sort.Direction.DESC, "id")))))
+                .thenReturn(List.of(booking));
+
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findByOwner(owner.getId(), "FUTURE", null, 5);
+
+        assertEquals(List.of(BookingMapper.toBookingOut(booking)), actualBookingsDtoOut);
+    }
+
     @Test
     void getAllByBookerWhenBookingStateFUTURE() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(userService.existsById(user.getId())).thenReturn(true);
         when(bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
@@ -258,7 +357,7 @@ class BookingServiceImplTest {
     @Test
     void getAllByBookerWhenBookingStateWAITING() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(userService.existsById(user.getId())).thenReturn(true);
         when(bookingRepository.findByBookerIdAndStatusOrderByStartDesc(anyLong(), any(BookingStatus.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
@@ -270,7 +369,7 @@ class BookingServiceImplTest {
     @Test
     void getAllByBookerWhenBookingStateREJECTED() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(userService.existsById(user.getId())).thenReturn(true);
         when(bookingRepository.findByBookerIdAndStatusOrderByStartDesc(anyLong(), any(BookingStatus.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
@@ -282,8 +381,8 @@ class BookingServiceImplTest {
     @Test
     void getAllByOwnerWhenBookingStateAll() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findByItemOwnerIdOrderByStartDesc(anyLong(), any(Pageable.class))).thenReturn(List.of(booking));
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(bookingRepository.findByOwnerIdOrderByStartDesc(anyLong(), any(Pageable.class))).thenReturn(List.of(booking));
 
         List<BookingDtoOut> actualBookingsDtoOut = bookingService.findByOwner(user.getId(), "ALL", 0, 10);
 
@@ -293,8 +392,8 @@ class BookingServiceImplTest {
     @Test
     void getAllByOwnerWhenBookingStateCURRENT() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(anyLong(),
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(bookingRepository.findByOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(anyLong(),
                 any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
@@ -306,8 +405,8 @@ class BookingServiceImplTest {
     @Test
     void getAllByOwnerWhenBookingStatePAST() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDesc(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(bookingRepository.findByOwnerIdAndEndBeforeOrderByStartDesc(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
         List<BookingDtoOut> actualBookingsDtoOut = bookingService.findByOwner(user.getId(), "PAST", 0, 10);
@@ -318,8 +417,8 @@ class BookingServiceImplTest {
     @Test
     void getAllByOwnerWhenBookingStateFUTURE() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(bookingRepository.findByOwnerIdAndStartAfterOrderByStartDesc(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
         List<BookingDtoOut> actualBookingsDtoOut = bookingService.findByOwner(user.getId(), "FUTURE", 0, 10);
@@ -330,8 +429,8 @@ class BookingServiceImplTest {
     @Test
     void getAllByOwnerWhenBookingStateWAITING() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(anyLong(), any(BookingStatus.class), any(Pageable.class)))
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(bookingRepository.findByOwnerIdAndStatusOrderByStartDesc(anyLong(), any(BookingStatus.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
         List<BookingDtoOut> actualBookingsDtoOut = bookingService.findByOwner(user.getId(), "WAITING", 0, 10);
@@ -342,8 +441,8 @@ class BookingServiceImplTest {
     @Test
     void getAllByOwnerWhenBookingStateREJECTED() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(anyLong(), any(BookingStatus.class), any(Pageable.class)))
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(bookingRepository.findByOwnerIdAndStatusOrderByStartDesc(anyLong(), any(BookingStatus.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
         List<BookingDtoOut> actualBookingsDtoOut = bookingService.findByOwner(user.getId(), "REJECTED", 0, 10);
@@ -352,9 +451,33 @@ class BookingServiceImplTest {
 
     }
 
+    @Test
+    void streamByOwnerWhenBookingStateWAITING() {
+        List<BookingDtoOut> actualBookingsDtoOut = new ArrayList<>();
+        when(userService.existsById(owner.getId())).thenReturn(true);
+        when(bookingRepository.streamByOwnerAndStatus(owner.getId(), BookingStatus.WAITING))
+                .thenReturn(Stream.of(booking));
+
+        bookingService.streamByOwner(owner.getId(), "WAITING", actualBookingsDtoOut::add);
+
+        assertEquals(List.of(BookingMapper.toBookingOut(booking)), actualBookingsDtoOut);
+    }
+
+    @Test
+    void streamByBookerWhenBookingStateCURRENT() {
+        List<BookingDtoOut> actualBookingsDtoOut = new ArrayList<>();
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(bookingRepository.streamCurrentByBooker(eq(user.getId()), any(LocalDateTime.class)))
+                .thenReturn(Stream.of(booking));
+
+        bookingService.streamByBooker(user.getId(), "CURRENT", actualBookingsDtoOut::add);
+
+        assertEquals(List.of(BookingMapper.toBookingOut(booking)), actualBookingsDtoOut);
+    }
+
     @Test
     void getAllByOwnerWhenBookingStateIsNotValid() {
-        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(userService.existsById(user.getId())).thenReturn(true);
 
         assertThrows(IllegalArgumentException.class,
                 () -> bookingService.findByOwner(user.getId(), "ERROR", 0, 10));
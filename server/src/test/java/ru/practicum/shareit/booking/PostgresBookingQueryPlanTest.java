@@ -0,0 +1,128 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Общий план PostgreSQL для запросов по состоянию должен идти по индексу из schema.sql. Требует PostgreSQL 16+:
+// mvn test -pl server -Dtest=PostgresBookingQueryPlanTest -Dshareit.test.postgres.url=jdbc:postgresql://localhost:5432/shareit
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "ru.practicum.shareit.booking.BookingQueryPlanTest$SqlRecorder"})
+@ActiveProfiles({"test", "postgres"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = "shareit.test.postgres.url", matches = ".+")
+class PostgresBookingQueryPlanTest {
+    private static final long USER_ID = 1L;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("shareit.test.postgres.url"));
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.username", () -> System.getProperty("shareit.test.postgres.user", "dbuser"));
+        registry.add("spring.datasource.password", () -> System.getProperty("shareit.test.postgres.password", "12345"));
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    // Данные откатываются вместе с транзакцией теста
+    @BeforeEach
+    void fillTables() {
+        jdbcTemplate.update("insert into users (name, email) " +
+                "select 'user' || i, 'plan' || i || '@email.com' from generate_series(1, 100) i");
+        jdbcTemplate.update("insert into items (name, description, available, owner_id) " +
+                "select 'item' || i, 'description', true, (select min(id) from users) + i % 100 " +
+                "from generate_series(1, 1000) i");
+        jdbcTemplate.update("insert into bookings (start_date, end_date, item_id, booker_id, owner_id, status) " +
+                "select timestamp '2030-01-01' + i * interval '1 hour', timestamp '2030-01-01' + i * interval '1 hour' " +
+                "+ interval '30 minutes', (select min(id) from items) + i % 1000, (select min(id) from users) + i % 100, " +
+                "(select min(id) from users) + i % 100, (array['WAITING', 'APPROVED', 'REJECTED', 'CANCELED'])[i % 4 + 1] " +
+                "from generate_series(1, 50000) i");
+        jdbcTemplate.execute("analyze users, items, bookings");
+    }
+
+    @Test
+    void bookerStateQueriesShouldUseIndexes() {
+        assertIndexed(() -> bookingRepository.findPageByBooker(USER_ID, now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findCurrentPageByBooker(USER_ID, now(), now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findPastPageByBooker(USER_ID, now(), now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findFuturePageByBooker(USER_ID, now(), now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findPageByBookerAndStatus(USER_ID, BookingStatus.WAITING, now(), 10L,
+                Limit.of(10)));
+        assertIndexed(() -> toList(bookingRepository.streamCurrentByBooker(USER_ID, now())));
+        assertIndexed(() -> toList(bookingRepository.streamByBookerAndStatus(USER_ID, BookingStatus.WAITING)));
+    }
+
+    @Test
+    void ownerStateQueriesShouldUseIndexes() {
+        assertIndexed(() -> bookingRepository.findPageByOwner(USER_ID, now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findCurrentPageByOwner(USER_ID, now(), now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findPastPageByOwner(USER_ID, now(), now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findFuturePageByOwner(USER_ID, now(), now(), 10L, Limit.of(10)));
+        assertIndexed(() -> bookingRepository.findPageByOwnerAndStatus(USER_ID, BookingStatus.WAITING, now(), 10L,
+                Limit.of(10)));
+        assertIndexed(() -> toList(bookingRepository.streamPastByOwner(USER_ID, now())));
+        assertIndexed(() -> toList(bookingRepository.streamByOwnerAndStatus(USER_ID, BookingStatus.WAITING)));
+    }
+
+    private void assertIndexed(Runnable call) {
+        BookingQueryPlanTest.SqlRecorder.STATEMENTS.get().clear();
+        call.run();
+        List<String> statements = List.copyOf(BookingQueryPlanTest.SqlRecorder.STATEMENTS.get());
+        assertFalse(statements.isEmpty(), "Запрос не выполнен");
+        for (String sql : statements) {
+            String plan = explainGeneric(sql);
+            assertFalse(plan.contains("Seq Scan on bookings"), () -> "Полный просмотр bookings:\n" + sql + "\n" + plan);
+            assertTrue(plan.matches("(?s).*Index.* using bookings_\\w+_idx on bookings.*"),
+                    () -> "Индекс не из schema.sql:\n" + sql + "\n" + plan);
+        }
+    }
+
+    // Общий план не зависит от значений параметров, именно он используется для подготовленных запросов
+    private String explainGeneric(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return jdbcTemplate.queryForList("explain (generic_plan) " + numbered, String.class).stream()
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.of(2031, 1, 1, 0, 0);
+    }
+
+    private static List<Booking> toList(Stream<Booking> bookings) {
+        try (bookings) {
+            return bookings.toList();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemDatabaseSearch;
+import ru.practicum.shareit.item.search.ItemSearchSort;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Проверки поиска средствами базы данных: совпадения ищутся по подстроке, как в индексе в памяти.
+@Transactional
+abstract class AbstractItemDatabaseSearchTest {
+
+    @Autowired
+    protected ItemDatabaseSearch itemDatabaseSearch;
+
+    @Autowired
+    protected TestEntityManager testEntityManager;
+
+    private Item drill;
+    private Item screwdriver;
+    private Item kit;
+
+    @BeforeEach
+    void addItems() {
+        User owner = testEntityManager.persist(User.builder()
+                .name("owner")
+                .email("owner@email.com")
+                .build());
+        drill = persist("Дрель", "Простая дрель", true, owner);
+        screwdriver = persist("Отвертка", "Аккумуляторная отвертка", true, owner);
+        kit = persist("Набор инструментов", "Молоток, дрель и отвертка", true, owner);
+        persist("Дрель ударная", "Сломанная дрель", false, owner);
+        testEntityManager.flush();
+    }
+
+    @Test
+    void searchShouldIgnoreCaseAndUnavailableItems() {
+        assertEquals(List.of(drill.getId(), kit.getId()),
+                itemDatabaseSearch.search("ДРЕЛЬ", ItemSearchSort.ID, 0, 10));
+    }
+
+    @Test
+    void searchShouldMatchSubstringOfWord() {
+        assertEquals(List.of(drill.getId(), kit.getId()),
+                itemDatabaseSearch.search("рел", ItemSearchSort.ID, 0, 10));
+    }
+
+    @Test
+    void searchShouldMatchDescription() {
+        assertEquals(List.of(screwdriver.getId()),
+                itemDatabaseSearch.search("аккумуляторная", ItemSearchSort.ID, 0, 10));
+    }
+
+    @Test
+    void searchShouldReturnRequestedPage() {
+        assertEquals(List.of(kit.getId()), itemDatabaseSearch.search("дрель", ItemSearchSort.ID, 1, 1));
+    }
+
+    @Test
+    void searchShouldStartAtOffsetNotAlignedToPageSize() {
+        assertEquals(List.of(kit.getId()), itemDatabaseSearch.search("дрель", ItemSearchSort.ID, 1, 2));
+    }
+
+    @Test
+    void relevanceShouldRankNameHitsFirst() {
+        assertEquals(List.of(screwdriver.getId(), kit.getId()),
+                itemDatabaseSearch.search("отвертка", ItemSearchSort.RELEVANCE, 0, 10));
+    }
+
+    @Test
+    void searchShouldReturnEmptyListWhenNothingFound() {
+        assertEquals(List.of(), itemDatabaseSearch.search("перфоратор", ItemSearchSort.ID, 0, 10));
+    }
+
+    private Item persist(String name, String description, boolean available, User owner) {
+        return testEntityManager.persist(Item.builder()
+                .name(name)
+                .description(description)
+                .available(available)
+                .owner(owner)
+                .build());
+    }
+}
@@ -4,11 +4,13 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.owner.ItemCommentView;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.user.User;
 
@@ -59,11 +61,38 @@ class CommentRepositoryTest {
         commentRepository.deleteAll();
     }
 
+    // Время создания проставляется при сохранении, поэтому позже сохранённый комментарий новее
     @Test
-    void findAllByItemId() {
-        List<Comment> comments = commentRepository.findAllByItemId(1L);
+    void findPageByItemIdShouldReadNewestAfterCursor() {
+        Comment newer = commentRepository.save(Comment.builder().item(item).author(user).text("newer").build());
+        Comment newest = commentRepository.save(Comment.builder().item(item).author(user).text("newest").build());
 
-        assertEquals(comments.size(), 1);
-        assertEquals(comments.get(0).getText(), "comment");
+        List<ItemCommentView> first = commentRepository.findPageByItemId(item.getId(), null, null, Limit.of(2));
+        ItemCommentView last = first.get(1);
+        List<ItemCommentView> next = commentRepository.findPageByItemId(item.getId(), last.getCreated(),
+                last.getId(), Limit.of(2));
+
+        assertEquals(List.of(newest.getId(), newer.getId()), first.stream().map(ItemCommentView::getId).toList());
+        assertEquals(List.of(comment.getId()), next.stream().map(ItemCommentView::getId).toList());
+    }
+
+    @Test
+    void findLatestViewsByItemIdInShouldLimitCommentsOfEachItem() {
+        Item other = testEntityManager.persist(Item.builder().name("other").description("other").available(true)
+                .owner(user).build());
+        Comment newer = commentRepository.save(Comment.builder().item(item).author(user).text("newer").build());
+        Comment otherComment = commentRepository.save(Comment.builder().item(other).author(user).text("other")
+                .build());
+
+        List<ItemCommentView> comments = commentRepository.findLatestViewsByItemIdIn(
+                List.of(item.getId(), other.getId()), 1);
+
+        assertEquals(List.of(newer.getId(), otherComment.getId()),
+                comments.stream().map(ItemCommentView::getId).toList());
+        assertEquals(List.of(item.getId(), other.getId()),
+                comments.stream().map(ItemCommentView::getItemId).toList());
+        assertEquals("newer", comments.get(0).getText());
+        assertEquals(user.getName(), comments.get(0).getAuthorName());
+        assertEquals(2, commentRepository.findLatestViewsByItemIdIn(List.of(item.getId()), 5).size());
     }
-}
\ No newline at end of file
+}
@@ -6,19 +6,29 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.CursorPages;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.User;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemController.class)
@@ -162,11 +172,14 @@ class ItemControllerTest {
                 .available(true)
                 .build());
 
-        when(itemService.findItemsOnText(text)).thenReturn(itemsDtoToExpect);
+        when(itemService.findItemsOnText(text, "relevance", false, from, size)).thenReturn(itemsDtoToExpect);
 
-        String result = mockMvc.perform(MockMvcRequestBuilders.get("/items/search", from, size)
+        String result = mockMvc.perform(MockMvcRequestBuilders.get("/items/search")
                         .header("X-Sharer-User-Id", userId)
-                        .param("text", text))
+                        .param("text", text)
+                        .param("sort", "relevance")
+                        .param("from", String.valueOf(from))
+                        .param("size", String.valueOf(size)))
                 .andExpect(status().isOk())
                 .andReturn()
                 .getResponse()
@@ -175,6 +188,90 @@ class ItemControllerTest {
         assertEquals(objectMapper.writeValueAsString(itemsDtoToExpect), result);
     }
 
+    @Test
+    @SneakyThrows
+    void streamItemsOnTextShouldWriteNdjson() {
+        ItemDtoOut first = ItemDtoOut.builder().id(1L).name("дрель").available(true).build();
+        ItemDtoOut second = ItemDtoOut.builder().id(2L).name("дрель ударная").available(true).build();
+        doAnswer(invocation -> {
+            Consumer<ItemDtoOut> consumer = invocation.getArgument(3);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(itemService).streamItemsOnText(eq("дрель"), eq("id"), eq(false), any());
+
+        String result = mockMvc.perform(MockMvcRequestBuilders.get("/items/search")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("text", "дрель"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(first) + "\n" + objectMapper.writeValueAsString(second) + "\n",
+                result);
+    }
+
+    @Test
+    @SneakyThrows
+    void findItemsWithFacetsShouldReturnStatusOk() {
+        ItemSearchFacetsDto facets = ItemSearchFacetsDto.builder()
+                .total(3)
+                .withRequest(1)
+                .withoutRequest(2)
+                .owners(List.of(new ItemSearchFacetsDto.OwnerCount(1L, 3)))
+                .build();
+        ItemSearchResultDto found = new ItemSearchResultDto(List.of(ItemMapper.toItemDtoOut(item)), facets);
+        when(itemService.findItemsWithFacets("find", "id", false, 0, 10)).thenReturn(found);
+
+        String result = mockMvc.perform(MockMvcRequestBuilders.get("/items/search")
+                        .param("text", "find")
+                        .param("facets", "true"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(found), result);
+    }
+
+    @Test
+    @SneakyThrows
+    void suggestShouldReturnStatusOk() {
+        List<String> suggestions = List.of("дрель", "дрель-шуруповерт");
+        when(itemService.suggest("дре", 5)).thenReturn(suggestions);
+
+        String result = mockMvc.perform(MockMvcRequestBuilders.get("/items/suggest")
+                        .param("prefix", "дре")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(suggestions), result);
+    }
+
+    @Test
+    @SneakyThrows
+    void findAvailabilityShouldReturnStatusOk() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(1);
+        List<FreeIntervalDto> free = List.of(new FreeIntervalDto(from, to));
+        when(itemService.findAvailability(1L, from, to, true)).thenReturn(free);
+
+        String result = mockMvc.perform(MockMvcRequestBuilders.get("/items/{itemId}/availability", 1L)
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-02T10:00:00")
+                        .param("includeWaiting", "true"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(free), result);
+    }
+
     @Test
     @SneakyThrows
     void createCommentWhenCommentIsValid() {
@@ -201,4 +298,32 @@ class ItemControllerTest {
         assertEquals(objectMapper.writeValueAsString(commentDtoOut), result);
     }
 
+    @Test
+    @SneakyThrows
+    void getCommentsShouldReturnNextCursor() {
+        CommentDtoOut comment = CommentDtoOut.builder()
+                .id(3L)
+                .itemId(item.getId())
+                .text("some comment")
+                .created(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .build();
+        KeysetCursor after = new KeysetCursor(LocalDateTime.of(2024, 1, 2, 12, 0), 5L);
+        when(itemService.getComments(item.getId(), after, 1)).thenReturn(List.of(comment));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/{itemId}/comments", item.getId())
+                        .param("after", after.encode())
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorPages.NEXT_CURSOR_HEADER, new KeysetCursor(comment.getCreated(), comment.getId()).encode()));
+    }
+
+    @Test
+    @SneakyThrows
+    void getCommentsLastPageWithoutNextCursor() {
+        when(itemService.getComments(item.getId(), null, 10)).thenReturn(List.of());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/{itemId}/comments", item.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CursorPages.NEXT_CURSOR_HEADER));
+    }
 }
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemIndexUpdater;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchSort;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
+import ru.practicum.shareit.request.match.ItemRequestMatcher;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ItemIndexUpdaterTest {
+    private final User owner = User.builder().id(10L).name("owner").email("owner@mail.ru").build();
+
+    private ItemSearchIndex searchIndex;
+    private ItemSuggestIndex suggestIndex;
+    private ItemSearchCache searchCache;
+    private ItemRequestMatcher requestMatcher;
+    private ItemIndexUpdater updater;
+
+    @BeforeEach
+    void init() {
+        searchIndex = new ItemSearchIndex();
+        suggestIndex = new ItemSuggestIndex();
+        searchCache = new ItemSearchCache(1_000);
+        requestMatcher = mock(ItemRequestMatcher.class);
+        updater = new ItemIndexUpdater(searchIndex, suggestIndex, new ItemRequestFeed(10, 10), searchCache,
+                requestMatcher);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void clear() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void updateShouldApplyAfterCommit() {
+        Item item = Item.builder().id(1L).name("Дрель").description("Простая дрель").available(true).owner(owner)
+                .build();
+        searchCache.get("дрель", ItemSearchSort.ID, false, 0, 10, () -> searchIndex.search("дрель"));
+
+        updater.update(item, null);
+
+        assertEquals(List.of(), searchIndex.search("дрель"));
+        assertEquals(1, searchCache.size());
+        verifyNoInteractions(requestMatcher);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(List.of(1L), searchIndex.search("дрель"));
+        assertEquals(List.of("дрель"), suggestIndex.suggest("др", 10));
+        assertEquals(0, searchCache.size());
+        verify(requestMatcher).invalidate(null, ItemSearchCache.Snapshot.of(item));
+    }
+
+    @Test
+    void updateShouldBeDroppedOnRollback() {
+        searchIndex.put(1L, owner.getId(), false, "Дрель", "Простая дрель");
+        Item item = Item.builder().id(1L).name("Дрель").description("Простая дрель").available(false).owner(owner)
+                .build();
+
+        updater.update(item, ItemSearchCache.Snapshot.of(Item.builder().name("Дрель").description("Простая дрель")
+                .available(true).build()));
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(List.of(1L), searchIndex.search("дрель"));
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,312 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.ClassUtils;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.item.dto.CommentDtoOut;
+import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.owner.ItemBookingView;
+import ru.practicum.shareit.item.owner.ItemOwnerView;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Сравнение списка вещей владельца через сущности и через проекции: число запросов, объём прочитанных
+// из результатов данных и время на страницу. Объём оценивается по значениям, которые Hibernate читает из ResultSet.
+// Запуск: mvn test -pl server -Pbenchmark
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:schema.sql",
+        "spring.jpa.show-sql=false"})
+class ItemOwnerListingBenchmarkTest {
+    private static final int OWNERS = 100;
+    private static final int ITEMS_PER_OWNER = 100;
+    private static final int BOOKINGS_PER_ITEM = 50;
+    private static final int COMMENTS_PER_ITEM = 5;
+    private static final int REQUESTS = 1_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int PAGES = 200;
+    private static final int BATCH = 10_000;
+    private static final AtomicLong STATEMENTS = new AtomicLong();
+    private static final AtomicLong BYTES = new AtomicLong();
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Test
+    void ownerListingWithEntitiesAndProjections() {
+        fill();
+        LocalDateTime now = LocalDateTime.of(2030, 1, 1, 0, 0).plusDays(BOOKINGS_PER_ITEM);
+
+        for (int i = 0; i < PAGES / 10; i++) {
+            listWithEntities(1L + i % OWNERS, 0, now);
+            listWithProjections(1L + i % OWNERS, 0, now);
+        }
+        Result entities = measure(page -> listWithEntities(1L + page % OWNERS, page / OWNERS % 5, now));
+        Result projections = measure(page -> listWithProjections(1L + page % OWNERS, page / OWNERS % 5, now));
+
+        assertEquals(summary(listWithEntities(1L, 0, now)), summary(listWithProjections(1L, 0, now)));
+        assertTrue(projections.statements() < entities.statements());
+        assertTrue(projections.bytes() < entities.bytes());
+        log.info("Страниц: {} по {} вещей", PAGES, PAGE_SIZE);
+        log.info("Сущности: {} запросов/страницу, {} байт/страницу, {} мс/страницу", entities.statements(),
+                entities.bytes(), entities.millis());
+        log.info("Проекции: {} запросов/страницу, {} байт/страницу, {} мс/страницу", projections.statements(),
+                projections.bytes(), projections.millis());
+    }
+
+    private Result measure(PageCall call) {
+        STATEMENTS.set(0);
+        BYTES.set(0);
+        long started = System.nanoTime();
+        for (int page = 0; page < PAGES; page++) {
+            call.list(page);
+        }
+        long nanos = System.nanoTime() - started;
+        return new Result(STATEMENTS.get() / (double) PAGES, BYTES.get() / PAGES, nanos / PAGES / 1_000_000.0);
+    }
+
+    // Прежний путь ItemServiceImpl.getUsersItems: сущности вещей, комментариев и бронирований со всеми связями
+    private List<ItemDtoOut> listWithEntities(Long ownerId, int page, LocalDateTime now) {
+        return fresh(() -> {
+            List<Item> items = testEntityManager.getEntityManager()
+                    .createQuery("select i from Item as i where i.owner.id = :ownerId", Item.class)
+                    .setParameter("ownerId", ownerId)
+                    .setFirstResult(page * PAGE_SIZE)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+            List<Long> itemIds = items.stream().map(Item::getId).toList();
+            Map<Long, List<CommentDtoOut>> comments = testEntityManager.getEntityManager()
+                    .createQuery("select c from Comment as c join fetch c.author where c.item.id in :itemIds",
+                            Comment.class)
+                    .setParameter("itemIds", itemIds)
+                    .getResultStream()
+                    .map(CommentMapper::toCommentDtoOut)
+                    .collect(groupingBy(CommentDtoOut::getItemId, toList()));
+            Map<Long, BookingDtoOut> last = bookingRepository.findLastBookings(itemIds, BookingStatus.APPROVED, now)
+                    .stream()
+                    .map(BookingMapper::toBookingOut)
+                    .collect(Collectors.toMap(BookingDtoOut::getItemId, b -> b));
+            Map<Long, BookingDtoOut> next = bookingRepository.findNextBookings(itemIds, BookingStatus.APPROVED, now)
+                    .stream()
+                    .map(BookingMapper::toBookingOut)
+                    .collect(Collectors.toMap(BookingDtoOut::getItemId, b -> b));
+            return items.stream()
+                    .map(item -> ItemMapper.toItemDtoOut(item, last.get(item.getId()), next.get(item.getId()),
+                            comments.get(item.getId())))
+                    .toList();
+        });
+    }
+
+    // Путь ItemServiceImpl.getUsersItems на проекциях
+    private List<ItemDtoOut> listWithProjections(Long ownerId, int page, LocalDateTime now) {
+        return fresh(() -> {
+            List<ItemOwnerView> items = itemRepository.findViewsByOwnerId(ownerId, PageRequest.of(page, PAGE_SIZE));
+            Map<Long, ItemDtoOut> itemDtos = items.stream()
+                    .collect(Collectors.toMap(ItemOwnerView::getId, ItemMapper::toItemDtoOut));
+            Map<Long, List<CommentDtoOut>> comments = commentRepository.findLatestViewsByItemIdIn(itemDtos.keySet(),
+                            COMMENTS_PER_ITEM)
+                    .stream()
+                    .map(CommentMapper::toCommentDtoOut)
+                    .collect(groupingBy(CommentDtoOut::getItemId, toList()));
+            Map<Long, BookingDtoOut> last = new HashMap<>();
+            Map<Long, BookingDtoOut> next = new HashMap<>();
+            for (ItemBookingView booking : bookingRepository.findNeighbourViews(itemDtos.keySet(),
+                    BookingStatus.APPROVED, now)) {
+                (booking.getStart().isBefore(now) ? last : next).put(booking.getItemId(),
+                        BookingMapper.toBookingOut(booking, itemDtos.get(booking.getItemId())));
+            }
+            return items.stream()
+                    .map(item -> ItemMapper.toItemDtoOut(item, last.get(item.getId()), next.get(item.getId()),
+                            comments.get(item.getId())))
+                    .toList();
+        });
+    }
+
+    private Map<Long, List<Object>> summary(List<ItemDtoOut> items) {
+        return items.stream()
+                .collect(Collectors.toMap(ItemDtoOut::getId, item -> List.of(item.getName(),
+                        item.getLastBooking().getId(), item.getLastBooking().getBooker(),
+                        item.getNextBooking().getId(), item.getComments().size())));
+    }
+
+    // Каждая страница читается в пустом контексте, как отдельный HTTP-запрос
+    private <T> T fresh(Supplier<T> call) {
+        testEntityManager.clear();
+        T result = call.get();
+        testEntityManager.clear();
+        return result;
+    }
+
+    private void fill() {
+        int users = OWNERS * 2;
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            batch.add(new Object[]{i, "user" + i, "user" + i + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", batch);
+        batch.clear();
+        LocalDateTime created = LocalDateTime.of(2029, 1, 1, 0, 0);
+        for (int i = 1; i <= REQUESTS; i++) {
+            batch.add(new Object[]{i, "Нужна вещь номер " + i, 1 + i % users, created});
+        }
+        jdbcTemplate.batchUpdate("insert into requests (id, description, requester_id, created) values (?, ?, ?, ?)",
+                batch);
+        batch.clear();
+        int items = OWNERS * ITEMS_PER_OWNER;
+        for (int i = 1; i <= items; i++) {
+            batch.add(new Object[]{i, "Вещь " + i, "Подробное описание вещи номер " + i + " для списка владельца",
+                    true, 1 + (i - 1) % OWNERS, i % 3 == 0 ? 1 + i % REQUESTS : null});
+        }
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, available, owner_id, request_id) " +
+                "values (?, ?, ?, ?, ?, ?)", batch);
+        batch.clear();
+        for (int i = 1; i <= items; i++) {
+            for (int j = 0; j < COMMENTS_PER_ITEM; j++) {
+                batch.add(new Object[]{"Комментарий " + j + " к вещи " + i, i, 1 + OWNERS + (i + j) % OWNERS,
+                        created});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into comments (text, item_id, author_id, created) values (?, ?, ?, ?)",
+                batch);
+        batch.clear();
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        for (int i = 1; i <= items; i++) {
+            for (int j = 0; j < BOOKINGS_PER_ITEM * 2; j++) {
+                batch.add(new Object[]{start.plusDays(j).plusHours(1), start.plusDays(j).plusHours(20), i,
+                        1 + OWNERS + (i + j) % OWNERS, 1 + (i - 1) % OWNERS,
+                        (j % 4 == 0 ? BookingStatus.WAITING : BookingStatus.APPROVED).name()});
+                if (batch.size() == BATCH) {
+                    insertBookings(batch);
+                    batch.clear();
+                }
+            }
+        }
+        insertBookings(batch);
+    }
+
+    private void insertBookings(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("insert into bookings (start_date, end_date, item_id, booker_id, owner_id, status) " +
+                "values (?, ?, ?, ?, ?, ?)", batch);
+    }
+
+    @FunctionalInterface
+    private interface PageCall {
+        void list(int page);
+    }
+
+    private record Result(double statements, long bytes, double millis) {
+    }
+
+    // Счётчик выполненных запросов и прочитанных значений поверх источника данных теста
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? wrap(bean) : bean;
+                }
+            };
+        }
+
+        private static Object wrap(Object target) {
+            Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(target.getClass());
+            return Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces, (proxy, method, args) -> {
+                if (target instanceof Statement && method.getName().startsWith("execute")) {
+                    STATEMENTS.incrementAndGet();
+                }
+                Object result = invoke(target, method, args);
+                if (result instanceof Connection) {
+                    return wrap(result);
+                }
+                if (result instanceof Statement) {
+                    return wrap(result);
+                }
+                if (result instanceof ResultSet) {
+                    return wrap(result);
+                }
+                if (target instanceof ResultSet && method.getName().startsWith("get") && args != null
+                        && args.length > 0) {
+                    BYTES.addAndGet(size(result));
+                }
+                return result;
+            });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private static long size(Object value) {
+            if (value == null) {
+                return 0;
+            }
+            if (value instanceof String string) {
+                return string.getBytes(StandardCharsets.UTF_8).length;
+            }
+            if (value instanceof byte[] bytes) {
+                return bytes.length;
+            }
+            return 8;
+        }
+    }
+}
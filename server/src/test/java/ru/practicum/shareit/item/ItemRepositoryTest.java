@@ -8,11 +8,17 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.owner.ItemOwnerView;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchFacetView;
+import ru.practicum.shareit.item.search.ItemSearchView;
+import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -52,17 +58,106 @@ class ItemRepositoryTest {
     }
 
     @Test
-    void findAllByOwnerId() {
-        List<Item> items = itemRepository.findAllByOwnerId(1L, PageRequest.of(0, 1));
+    void findViewsByOwnerId() {
+        List<ItemOwnerView> items = itemRepository.findViewsByOwnerId(user.getId(), PageRequest.of(0, 1));
 
-        assertEquals(items.get(0).getName(), "name");
+        assertEquals(1, items.size());
+        assertEquals(item.getId(), items.get(0).getId());
+        assertEquals("name", items.get(0).getName());
+        assertEquals(true, items.get(0).getAvailable());
+        assertEquals(0L, items.get(0).getCommentCount());
+    }
+
+    @Test
+    void findForUpdateByIdShouldKeepCommentCount() {
+        Item locked = itemRepository.findForUpdateById(item.getId()).orElseThrow();
+        locked.setCommentCount(locked.getCommentCount() + 1);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        assertEquals(1L, itemRepository.findViewsByOwnerId(user.getId(), PageRequest.of(0, 1)).get(0)
+                .getCommentCount());
     }
 
     @Test
     void findAllByText() {
-        String text = "des";
-        List<Item> items = itemRepository.search(text);
+        String text = "DES";
+        List<Long> items = itemRepository.searchAvailableIds(text, 0, 10);
+
+        assertEquals(List.of(item.getId()), items);
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    void findAllAvailableForSearch() {
+        try (Stream<ItemSearchView> items = itemRepository.findAllAvailableForSearch()) {
+            List<ItemSearchView> views = items.toList();
+
+            assertEquals(1, views.size());
+            assertEquals("description", views.get(0).getDescription());
+        }
+    }
+
+    @Test
+    void findAllByRequestIdIn() {
+        ItemRequest request = ItemRequest.builder()
+                .description("нужна вещь")
+                .requester(user)
+                .build();
+        testEntityManager.persist(request);
+        Item answer = itemRepository.save(Item.builder()
+                .name("answer")
+                .description("description")
+                .available(true)
+                .owner(user)
+                .request(request)
+                .build());
+
+        List<Item> items = itemRepository.findAllByRequestIdIn(List.of(request.getId(), request.getId() + 1));
+
+        assertEquals(List.of(answer.getId()), items.stream().map(Item::getId).toList());
+        assertEquals(request.getId(), items.getFirst().getRequest().getId());
+    }
+
+    @Test
+    void countFacets() {
+        User other = User.builder()
+                .name("other")
+                .email("other@email.com")
+                .build();
+        testEntityManager.persist(other);
+        ItemRequest request = ItemRequest.builder()
+                .description("нужно описание")
+                .requester(other)
+                .build();
+        testEntityManager.persist(request);
+        itemRepository.save(Item.builder()
+                .name("second")
+                .description("Description")
+                .available(false)
+                .owner(user)
+                .build());
+        itemRepository.save(Item.builder()
+                .name("third")
+                .description("description")
+                .available(true)
+                .owner(other)
+                .request(request)
+                .build());
+        itemRepository.save(Item.builder()
+                .name("fourth")
+                .description("other")
+                .available(true)
+                .owner(other)
+                .build());
+
+        List<ItemSearchFacetView> rows = itemRepository.countFacets("descr");
 
-        assertEquals(items.get(0).getName(), "name");
+        assertEquals(2, rows.size());
+        assertEquals(2L, rows.stream().mapToLong(ItemSearchFacetView::getCount).sum());
+        assertEquals(1L, rows.stream().filter(ItemSearchFacetView::getHasRequest)
+                .mapToLong(ItemSearchFacetView::getCount).sum());
+        assertEquals(1L, rows.stream().filter(row -> row.getOwnerId().equals(user.getId()))
+                .mapToLong(ItemSearchFacetView::getCount).sum());
     }
-}
\ No newline at end of file
+}
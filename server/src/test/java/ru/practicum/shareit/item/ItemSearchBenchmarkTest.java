@@ -0,0 +1,171 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchSort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Сравнение поиска по индексу с запросом like %text% на миллионе вещей
+// и замер поиска с опечатками на словаре из 500 тысяч слов.
+// Запуск: mvn test -pl server -Pbenchmark
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class ItemSearchBenchmarkTest {
+    private static final int ITEMS = 1_000_000;
+    private static final int OWNERS = 1_000;
+    private static final int WORDS = 20_000;
+    private static final int BATCH = 10_000;
+    private static final int VOCABULARY = 500_000;
+    private static final String ALPHABET = "абвгдеёжзийклмнопрстуфхцчшщъыьэюя";
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void searchOnMillionItems() {
+        List<String> words = words();
+        ItemSearchIndex index = new ItemSearchIndex();
+        fill(words, index);
+
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String word = words.get(random.nextInt(words.size()));
+            int start = random.nextInt(word.length() - 3);
+            queries.add(word.substring(start, start + 4));
+        }
+        queries.add(words.get(0) + " " + words.get(1));
+        queries.add(words.get(2).substring(1, 3));
+
+        long likeNanos = 0;
+        long indexNanos = 0;
+        for (String query : queries) {
+            long started = System.nanoTime();
+            List<Long> expected = itemRepository.searchAvailableIds(query, 0, Integer.MAX_VALUE);
+            likeNanos += System.nanoTime() - started;
+            testEntityManager.clear();
+
+            started = System.nanoTime();
+            List<Long> actual = index.search(query);
+            indexNanos += System.nanoTime() - started;
+
+            assertEquals(expected, actual, "Расхождение результатов для запроса '" + query + "'");
+        }
+        log.info("Запросов: {}, like: {} мс/запрос, индекс: {} мс/запрос", queries.size(),
+                likeNanos / queries.size() / 1_000_000.0, indexNanos / queries.size() / 1_000_000.0);
+    }
+
+    @Test
+    void fuzzySearchOnLargeVocabulary() {
+        ItemSearchIndex index = new ItemSearchIndex();
+        List<String> words = new ArrayList<>(VOCABULARY);
+        for (long id = 1; id <= VOCABULARY; id++) {
+            String word = word();
+            words.add(word);
+            index.put(id, 1L, false, word, "");
+        }
+
+        int queries = 1_000;
+        long nanos = 0;
+        for (int i = 0; i < queries; i++) {
+            int position = random.nextInt(VOCABULARY);
+            String query = typo(words.get(position));
+            long started = System.nanoTime();
+            List<Long> found = index.fuzzySearch(query, ItemSearchSort.ID, 0, 10);
+            nanos += System.nanoTime() - started;
+
+            assertFalse(found.isEmpty(), "Не найдено слово '" + words.get(position) + "' по запросу '" + query + "'");
+        }
+        log.info("Словарь: {} слов, поиск с опечатками: {} мкс/запрос", VOCABULARY, nanos / queries / 1_000.0);
+    }
+
+    private void fill(List<String> words, ItemSearchIndex index) {
+        List<Object[]> owners = new ArrayList<>();
+        for (int i = 1; i <= OWNERS; i++) {
+            owners.add(new Object[]{i, "owner" + i, "owner" + i + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", owners);
+
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (long id = 1; id <= ITEMS; id++) {
+            String name = words.get(random.nextInt(words.size())) + " " + words.get(random.nextInt(words.size()));
+            StringBuilder description = new StringBuilder();
+            for (int i = 0; i < 4; i++) {
+                description.append(words.get(random.nextInt(words.size()))).append(' ');
+            }
+            boolean available = random.nextInt(10) > 0;
+            long ownerId = 1 + random.nextInt(OWNERS);
+            batch.add(new Object[]{id, name, description.toString().trim(), available, ownerId});
+            if (available) {
+                index.put(id, ownerId, false, name, description.toString().trim());
+            }
+            if (batch.size() == BATCH) {
+                insertItems(batch);
+                batch.clear();
+            }
+        }
+        insertItems(batch);
+    }
+
+    private void insertItems(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate(
+                "insert into items (id, name, description, available, owner_id) values (?, ?, ?, ?, ?)", batch);
+    }
+
+    // Одна случайная правка: удаление, замена или перестановка соседних символов
+    private String typo(String word) {
+        int position = random.nextInt(word.length() - 1);
+        return switch (random.nextInt(3)) {
+            case 0 -> word.substring(0, position) + word.substring(position + 1);
+            case 1 -> word.substring(0, position) + ALPHABET.charAt(random.nextInt(ALPHABET.length()))
+                    + word.substring(position + 1);
+            default -> word.substring(0, position) + word.charAt(position + 1) + word.charAt(position)
+                    + word.substring(position + 2);
+        };
+    }
+
+    private String word() {
+        int length = 6 + random.nextInt(5);
+        StringBuilder word = new StringBuilder(length);
+        for (int j = 0; j < length; j++) {
+            word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return word.toString();
+    }
+
+    private List<String> words() {
+        List<String> words = new ArrayList<>(WORDS);
+        for (int i = 0; i < WORDS; i++) {
+            int length = 5 + random.nextInt(6);
+            StringBuilder word = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            words.add(i % 2 == 0 ? word.toString() : Character.toUpperCase(word.charAt(0)) + word.substring(1));
+        }
+        return words;
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchSort;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemSearchCacheTest {
+
+    private ItemSearchCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void init() {
+        cache = new ItemSearchCache(1_000);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getShouldLoadOncePerNormalizedQuery() {
+        assertEquals(List.of(1L), get("Дрель", ItemSearchSort.ID, false));
+        assertEquals(List.of(1L), get("дРЕЛЬ", ItemSearchSort.ID, false));
+        get("дрель", ItemSearchSort.RELEVANCE, false);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateShouldDropOnlyMatchingQueries() {
+        get("дрель", ItemSearchSort.ID, false);
+        get("отвертка", ItemSearchSort.ID, false);
+
+        cache.invalidate(null, new ItemSearchCache.Snapshot("дрель ударная", "", true));
+        get("дрель", ItemSearchSort.ID, false);
+        get("отвертка", ItemSearchSort.ID, false);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void invalidateShouldUseOldAndNewText() {
+        get("дрель", ItemSearchSort.ID, false);
+        get("пила", ItemSearchSort.ID, false);
+        get("молоток", ItemSearchSort.ID, false);
+
+        cache.invalidate(new ItemSearchCache.Snapshot("дрель", "", true),
+                new ItemSearchCache.Snapshot("пила", "", true));
+        get("дрель", ItemSearchSort.ID, false);
+        get("пила", ItemSearchSort.ID, false);
+        get("молоток", ItemSearchSort.ID, false);
+
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void invalidateShouldIgnoreUnavailableItems() {
+        get("дрель", ItemSearchSort.ID, false);
+
+        cache.invalidate(new ItemSearchCache.Snapshot("дрель", "", false),
+                new ItemSearchCache.Snapshot("дрель", "новое описание", false));
+        get("дрель", ItemSearchSort.ID, false);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidateShouldKeepIdOrderWhenItemStillMatches() {
+        get("дрель", ItemSearchSort.ID, false);
+        get("дрель", ItemSearchSort.RELEVANCE, false);
+
+        cache.invalidate(new ItemSearchCache.Snapshot("дрель", "", true),
+                new ItemSearchCache.Snapshot("дрель", "дрель сетевая", true));
+        get("дрель", ItemSearchSort.ID, false);
+        get("дрель", ItemSearchSort.RELEVANCE, false);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void invalidateShouldMatchFuzzyQueriesWithTypos() {
+        get("дрел", ItemSearchSort.ID, true);
+        get("пилла", ItemSearchSort.ID, true);
+
+        cache.invalidate(null, new ItemSearchCache.Snapshot("дрель", "", true));
+        get("дрел", ItemSearchSort.ID, true);
+        get("пилла", ItemSearchSort.ID, true);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void invalidateShouldMatchShortAndMultiWordQueries() {
+        get("др", ItemSearchSort.ID, false);
+        get("ль уд", ItemSearchSort.ID, false);
+        get("пи", ItemSearchSort.ID, false);
+
+        cache.invalidate(null, new ItemSearchCache.Snapshot("дрель ударная", "", true));
+        get("др", ItemSearchSort.ID, false);
+        get("ль уд", ItemSearchSort.ID, false);
+        get("пи", ItemSearchSort.ID, false);
+
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void getShouldNotStoreResultLoadedDuringInvalidation() {
+        cache.get("дрель", ItemSearchSort.ID, false, 0, 10, () -> {
+            cache.invalidate(null, new ItemSearchCache.Snapshot("дрель", "", true));
+            return List.of(1L);
+        });
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidateAllShouldDropEveryQuery() {
+        get("дрель", ItemSearchSort.ID, false);
+        get("пила", ItemSearchSort.ID, true);
+
+        cache.invalidateAll();
+        get("дрель", ItemSearchSort.ID, false);
+        get("пила", ItemSearchSort.ID, true);
+
+        assertEquals(4, loads.get());
+    }
+
+    private List<Long> get(String text, ItemSearchSort sort, boolean fuzzy) {
+        return cache.get(text, sort, fuzzy, 0, 10, () -> {
+            loads.incrementAndGet();
+            return List.of(1L);
+        });
+    }
+}
@@ -0,0 +1,274 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchFacetCounter;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchSort;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemSearchIndexTest {
+    private static final Long OWNER_ID = 10L;
+
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void init() {
+        index = new ItemSearchIndex();
+        index.put(1L, OWNER_ID, false, "Дрель", "Простая дрель");
+        index.put(2L, OWNER_ID, false, "Отвертка", "Аккумуляторная отвертка");
+        index.put(3L, OWNER_ID, false, "Клей Момент", "Тюбик суперклея марки Момент");
+    }
+
+    @Test
+    void searchShouldIgnoreCase() {
+        assertEquals(List.of(1L), index.search("дРелЬ"));
+    }
+
+    @Test
+    void searchShouldMatchSubstringInsideWord() {
+        assertEquals(List.of(2L), index.search("кумулятор"));
+        assertEquals(List.of(3L), index.search("клей"));
+    }
+
+    @Test
+    void searchShouldMatchPhrase() {
+        assertEquals(List.of(3L), index.search("марки момент"));
+        assertEquals(List.of(3L), index.search("клея марки"));
+        assertEquals(List.of(), index.search("марки дрель"));
+    }
+
+    @Test
+    void searchShouldRequireWholeTokenBetweenSeparators() {
+        assertEquals(List.of(), index.search("суперклея мар ки"));
+        assertEquals(List.of(2L), index.search("аккумуляторная отв"));
+    }
+
+    @Test
+    void searchShouldReturnRequestedPage() {
+        index.put(4L, OWNER_ID, false, "Дрель ударная", "Дрель с функцией удара");
+        index.put(5L, OWNER_ID, false, "Дрель-шуруповерт", "Компактная дрель");
+
+        assertEquals(List.of(1L, 4L), index.search("дрель", ItemSearchSort.ID, 0, 2));
+        assertEquals(List.of(4L, 5L), index.search("дрель", ItemSearchSort.ID, 1, 2));
+        assertEquals(List.of(), index.search("дрель", ItemSearchSort.ID, 3, 2));
+    }
+
+    @Test
+    void searchShouldCountFacetsOverAllHits() {
+        index.put(4L, 20L, true, "Дрель ударная", "Дрель с функцией удара");
+        index.put(5L, 20L, false, "Дрель-шуруповерт", "Компактная дрель");
+        ItemSearchFacetCounter facets = new ItemSearchFacetCounter();
+
+        assertEquals(List.of(1L), index.search("дрель", ItemSearchSort.ID, 0, 1, facets));
+
+        ItemSearchFacetsDto counts = facets.toDto(1);
+        assertEquals(3L, counts.getTotal());
+        assertEquals(1L, counts.getWithRequest());
+        assertEquals(2L, counts.getWithoutRequest());
+        assertEquals(List.of(new ItemSearchFacetsDto.OwnerCount(20L, 2L)), counts.getOwners());
+    }
+
+    @Test
+    void fuzzySearchShouldCountFacets() {
+        index.put(4L, 20L, true, "Дрель ударная", "Дрель с функцией удара");
+        ItemSearchFacetCounter facets = new ItemSearchFacetCounter();
+
+        assertEquals(List.of(1L), index.fuzzySearch("дрел", ItemSearchSort.ID, 0, 1, facets));
+
+        assertEquals(2L, facets.toDto(10).getTotal());
+        assertEquals(1L, facets.toDto(10).getWithRequest());
+    }
+
+    @Test
+    void relevanceShouldRankNameHitsFirst() {
+        index.put(4L, OWNER_ID, false, "Набор инструментов", "Молоток, дрель и отвертка");
+        index.put(5L, OWNER_ID, false, "Дрель", "Дрель сетевая");
+
+        assertEquals(List.of(1L, 5L, 4L), index.search("дрель", ItemSearchSort.RELEVANCE, 0, 10));
+        assertEquals(List.of(5L), index.search("дрель", ItemSearchSort.RELEVANCE, 1, 1));
+    }
+
+    @Test
+    void unavailableItemShouldBeRemovedFromIndex() {
+        Item item = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(false)
+                .build();
+
+        index.index(item);
+
+        assertEquals(List.of(), index.search("дрель"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void loadShouldNotRestoreItemChangedDuringLoad() {
+        index.startLoad();
+        index.remove(1L);
+        index.put(2L, OWNER_ID, false, "Пила", "Ручная пила");
+
+        index.load(1L, OWNER_ID, false, "Дрель", "Простая дрель");
+        index.load(2L, OWNER_ID, false, "Отвертка", "Аккумуляторная отвертка");
+        index.load(4L, OWNER_ID, false, "Дрель ударная", "Дрель с функцией удара");
+        index.markReady();
+        index.load(1L, OWNER_ID, false, "Дрель", "Простая дрель");
+
+        assertEquals(List.of(1L, 4L), index.search("дрель"));
+        assertEquals(List.of(2L), index.search("пила"));
+        assertEquals(List.of(), index.search("отвертка"));
+    }
+
+    @Test
+    void updatedItemShouldBeFoundByNewText() {
+        index.put(1L, OWNER_ID, false, "Перфоратор", "Мощный перфоратор");
+
+        assertEquals(List.of(), index.search("дрель"));
+        assertEquals(List.of(1L), index.search("мощный"));
+    }
+
+    @Test
+    void searchShouldTreatLikeWildcardsLiterally() {
+        index.put(4L, OWNER_ID, false, "Скидка 100%", "Набор_ключей");
+
+        assertEquals(List.of(4L), index.search("100%"));
+        assertEquals(List.of(4L), index.search("р_к"));
+        assertEquals(List.of(), index.search("р%к"));
+    }
+
+    @Test
+    void searchShouldReturnSameItemsAsSubstringScan() {
+        index = new ItemSearchIndex();
+        Random random = new Random(7);
+        String alphabet = "абвгдежз -";
+        Map<Long, String[]> items = new HashMap<>();
+        for (long id = 10; id < 300; id++) {
+            String[] text = {randomText(random, alphabet, 12), randomText(random, alphabet, 30)};
+            items.put(id, text);
+            index.put(id, OWNER_ID, false, text[0], text[1]);
+        }
+        for (int i = 0; i < 200; i++) {
+            String query = randomText(random, alphabet, 1 + random.nextInt(5));
+            if (query.isBlank()) {
+                continue;
+            }
+            List<Long> expected = new ArrayList<>();
+            items.forEach((id, text) -> {
+                String lowerQuery = query.toLowerCase(Locale.ROOT);
+                if (text[0].toLowerCase(Locale.ROOT).contains(lowerQuery)
+                        || text[1].toLowerCase(Locale.ROOT).contains(lowerQuery)) {
+                    expected.add(id);
+                }
+            });
+            expected.sort(null);
+
+            assertEquals(expected, index.search(query), "Запрос '" + query + "'");
+        }
+    }
+
+    @Test
+    void matchShouldRankItemsByCommonWords() {
+        index.put(4L, OWNER_ID, false, "Набор инструментов", "Молоток, дрель и отвертка");
+
+        assertEquals(List.of(2L, 1L, 4L), index.match("Нужна аккумуляторная отвертка или дрель", 10));
+        assertEquals(List.of(2L), index.match("Нужна аккумуляторная отвертка или дрель", 1));
+    }
+
+    @Test
+    void matchShouldIgnoreShortAndUnknownWords() {
+        index.put(4L, OWNER_ID, false, "Набор и", "Молоток");
+
+        assertEquals(List.of(), index.match("Пила и молот", 10));
+    }
+
+    @Test
+    void fuzzySearchShouldTolerateTypos() {
+        assertEquals(List.of(1L), index.fuzzySearch("дрел", ItemSearchSort.ID, 0, 10));
+        assertEquals(List.of(2L), index.fuzzySearch("отвретка", ItemSearchSort.ID, 0, 10));
+        assertEquals(List.of(2L), index.fuzzySearch("акамуляторная атвертка", ItemSearchSort.ID, 0, 10));
+        assertEquals(List.of(3L), index.fuzzySearch("момнет", ItemSearchSort.ID, 0, 10));
+        assertEquals(List.of(), index.fuzzySearch("молоток", ItemSearchSort.ID, 0, 10));
+    }
+
+    @Test
+    void fuzzySearchShouldForgetRemovedWords() {
+        index.put(1L, OWNER_ID, false, "Перфоратор", "Мощный перфоратор");
+
+        assertEquals(List.of(), index.fuzzySearch("дрел", ItemSearchSort.ID, 0, 10));
+        assertEquals(List.of(1L), index.fuzzySearch("перфоротор", ItemSearchSort.ID, 0, 10));
+    }
+
+    @Test
+    void fuzzySearchShouldRankNameHitsFirst() {
+        index.put(4L, OWNER_ID, false, "Набор инструментов", "Молоток, дрель и отвертка");
+
+        assertEquals(List.of(2L, 4L), index.fuzzySearch("отвертко", ItemSearchSort.RELEVANCE, 0, 10));
+    }
+
+    @Test
+    void fuzzySearchShouldReturnSameItemsAsDistanceScan() {
+        index = new ItemSearchIndex();
+        Random random = new Random(11);
+        String alphabet = "абвгд";
+        Map<Long, String> items = new HashMap<>();
+        for (long id = 1; id < 400; id++) {
+            String name = randomText(random, alphabet, 2 + random.nextInt(11)).toLowerCase(Locale.ROOT);
+            items.put(id, name);
+            index.put(id, OWNER_ID, false, name, "");
+        }
+        for (int i = 0; i < 200; i++) {
+            String query = randomText(random, alphabet, 3 + random.nextInt(10)).toLowerCase(Locale.ROOT);
+            int limit = query.length() <= 5 ? 1 : 2;
+            List<Long> expected = new ArrayList<>();
+            items.forEach((id, name) -> {
+                if (osaDistance(query, name) <= limit) {
+                    expected.add(id);
+                }
+            });
+            expected.sort(null);
+
+            assertEquals(expected, index.fuzzySearch(query, ItemSearchSort.ID, 0, Integer.MAX_VALUE),
+                    "Запрос '" + query + "'");
+        }
+    }
+
+    private int osaDistance(String source, String target) {
+        int[][] d = new int[source.length() + 1][target.length() + 1];
+        for (int i = 0; i <= source.length(); i++) {
+            for (int j = 0; j <= target.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                    continue;
+                }
+                int cost = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && source.charAt(i - 1) == target.charAt(j - 2)
+                        && source.charAt(i - 2) == target.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[source.length()][target.length()];
+    }
+
+    private String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            char symbol = alphabet.charAt(random.nextInt(alphabet.length()));
+            text.append(random.nextBoolean() ? Character.toUpperCase(symbol) : symbol);
+        }
+        return text.toString();
+    }
+}
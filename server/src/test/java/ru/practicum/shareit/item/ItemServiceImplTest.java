@@ -1,25 +1,43 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.interval.BookingIntervalView;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.availability.ItemAvailabilityCache;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.owner.ItemBookingView;
+import ru.practicum.shareit.item.owner.ItemCommentView;
+import ru.practicum.shareit.item.owner.ItemOwnerView;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemDatabaseSearch;
+import ru.practicum.shareit.item.search.ItemIndexUpdater;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchFacetCounter;
+import ru.practicum.shareit.item.search.ItemSearchFacetView;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchSort;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -27,9 +45,11 @@ import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -50,6 +70,27 @@ class ItemServiceImplTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ItemDatabaseSearch itemDatabaseSearch;
+
+    @Mock
+    private ItemSuggestIndex itemSuggestIndex;
+
+    @Mock
+    private ItemIndexUpdater itemIndexUpdater;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ItemSearchCache itemSearchCache = new ItemSearchCache(1_000);
+
+    @Spy
+    private ItemAvailabilityCache itemAvailabilityCache = new ItemAvailabilityCache(1_000);
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -89,6 +130,7 @@ class ItemServiceImplTest {
             .description("description")
             .available(true)
             .comments(Collections.emptyList())
+            .commentCount(0L)
             .build();
 
     private final ItemDto itemDtoUpdate = ItemDto.builder()
@@ -156,6 +198,32 @@ class ItemServiceImplTest {
         assertEquals(itemDto, actualItemDto);
     }
 
+    @Test
+    void getItemByIdForOwnerShouldUseNeighbourBookings() {
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(bookingRepository.findLastBookings(eq(List.of(item.getId())), eq(BookingStatus.APPROVED),
+                any(LocalDateTime.class))).thenReturn(List.of(lastBooking));
+        when(bookingRepository.findNextBookings(eq(List.of(item.getId())), eq(BookingStatus.APPROVED),
+                any(LocalDateTime.class))).thenReturn(List.of(nextBooking));
+
+        ItemDtoOut actualItemDto = itemService.findById(item.getOwner().getId(), item.getId());
+
+        assertEquals(lastBooking.getId(), actualItemDto.getLastBooking().getId());
+        assertEquals(nextBooking.getId(), actualItemDto.getNextBooking().getId());
+    }
+
+    @Test
+    void getItemsByOwnerWithoutItemsShouldNotQueryBookings() {
+        Pageable pageable = OffsetPageRequest.of(0, 10);
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(itemRepository.findViewsByOwnerId(user.getId(), pageable)).thenReturn(List.of());
+
+        List<ItemDtoOut> listItem = itemService.getUsersItems(user.getId(), 0, 10);
+
+        assertEquals(0, listItem.size());
+        verifyNoInteractions(bookingRepository);
+    }
+
     @Test
     void updateItem() {
         ItemRequest itemRequest = new ItemRequest(1L, "description", user, LocalDateTime.now(), null);
@@ -168,13 +236,14 @@ class ItemServiceImplTest {
                 .request(itemRequest)
                 .build();
 
-        when(userService.findById(user.getId())).thenReturn(UserMapper.toUserDto(user));
+        when(userService.existsById(user.getId())).thenReturn(true);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(updatedItem));
 
         ItemDtoOut savedItem = itemService.update(user.getId(), itemDto.getId(), ItemMapper.toItemDto(updatedItem));
 
         assertEquals("updated name", savedItem.getName());
         assertEquals("updated description", savedItem.getDescription());
+        verify(itemIndexUpdater).update(eq(updatedItem), any(ItemSearchCache.Snapshot.class));
     }
 
     @Test
@@ -188,7 +257,7 @@ class ItemServiceImplTest {
                 .build();
 
         when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(updatedItem));
-        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(userService.existsById(user.getId())).thenReturn(true);
 
         NotFoundException itemNotFoundException = assertThrows(NotFoundException.class,
                 () -> itemService.update(user.getId(), itemDto.getId(), ItemMapper.toItemDto(updatedItem)));
@@ -199,6 +268,7 @@ class ItemServiceImplTest {
 
     @Test
     void updateItemWhenItemIdIsNotValid() {
+        when(userService.existsById(user.getId())).thenReturn(true);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
         NotFoundException itemNotFoundException = assertThrows(NotFoundException.class,
                 () -> itemService.update(user.getId(), itemDto.getId(), ItemMapper.toItemDto(item)));
@@ -207,21 +277,42 @@ class ItemServiceImplTest {
 
     @Test
     void getItemsById() {
-        Pageable pageable = PageRequest.of(0, 10);
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(itemRepository.findAllByOwnerId(user.getId(), pageable)).thenReturn(List.of(item));
+        Pageable pageable = OffsetPageRequest.of(5, 10);
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(itemRepository.findViewsByOwnerId(user.getId(), pageable)).thenReturn(List.of(ownerView()));
 
-        List<ItemDtoOut> listItem = itemService.getUsersItems(user.getId(), 0, 10);
+        List<ItemDtoOut> listItem = itemService.getUsersItems(user.getId(), 5, 10);
 
         assertEquals(1, listItem.size());
         assertEquals(item.getName(), listItem.getFirst().getName());
     }
 
+    @Test
+    void getItemsByOwnerShouldSplitNeighbourBookings() {
+        Pageable pageable = OffsetPageRequest.of(0, 10);
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(itemRepository.findViewsByOwnerId(user.getId(), pageable)).thenReturn(List.of(ownerView()));
+        when(commentRepository.findLatestViewsByItemIdIn(Set.of(item.getId()), 10)).thenReturn(List.of(
+                new CommentView(comment.getId(), comment.getText(), user.getName(), LocalDateTime.now(),
+                        item.getId())));
+        when(bookingRepository.findNeighbourViews(eq(Set.of(item.getId())), eq(BookingStatus.APPROVED),
+                any(LocalDateTime.class))).thenReturn(List.of(bookingView(nextBooking), bookingView(lastBooking)));
+
+        ItemDtoOut itemDtoOut = itemService.getUsersItems(user.getId(), 0, 10).getFirst();
+
+        assertEquals(lastBooking.getId(), itemDtoOut.getLastBooking().getId());
+        assertEquals(user.getEmail(), itemDtoOut.getLastBooking().getBooker().getEmail());
+        assertEquals(item.getName(), itemDtoOut.getLastBooking().getItem().getName());
+        assertEquals(nextBooking.getId(), itemDtoOut.getNextBooking().getId());
+        assertEquals(1, itemDtoOut.getComments().size());
+        assertEquals(user.getName(), itemDtoOut.getComments().getFirst().getAuthorName());
+    }
+
     @Test
     void createComment() {
         CommentDtoOut expectedCommentDto = CommentMapper.toCommentDtoOut(comment);
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(itemRepository.findForUpdateById(item.getId())).thenReturn(Optional.of(item));
         when(bookingRepository.findByBookerIdAndItemIdAndEndBefore(anyLong(), anyLong(), any(LocalDateTime.class)))
                 .thenReturn(List.of(booking));
         when(commentRepository.save(any(Comment.class))).thenReturn(comment);
@@ -229,21 +320,265 @@ class ItemServiceImplTest {
         CommentDtoOut actualCommentDto = itemService.createComment(user.getId(), CommentMapper.toCommentDto(comment), item.getId());
 
         assertEquals(expectedCommentDto, actualCommentDto);
+        assertEquals(1L, item.getCommentCount());
+    }
+
+    @Test
+    void getCommentsShouldReadPageAfterCursor() {
+        LocalDateTime created = LocalDateTime.now();
+        KeysetCursor after = new KeysetCursor(created, 5L);
+        when(itemRepository.existsById(item.getId())).thenReturn(true);
+        when(commentRepository.findPageByItemId(item.getId(), created, 5L, Limit.of(2))).thenReturn(List.of(
+                new CommentView(4L, "text", user.getName(), created, item.getId())));
+
+        List<CommentDtoOut> comments = itemService.getComments(item.getId(), after, 2);
+
+        assertEquals(1, comments.size());
+        assertEquals(4L, comments.getFirst().getId());
+    }
+
+    @Test
+    void getCommentsWhenItemIdIsNotValid() {
+        when(itemRepository.existsById(item.getId())).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> itemService.getComments(item.getId(), null, 10));
+        verifyNoInteractions(commentRepository);
     }
 
     @Test
     void findByText() {
         String text = "desc";
-        when(itemRepository.search(text)).thenReturn(List.of(item));
-        List<ItemDtoOut> itemList = (List<ItemDtoOut>) itemService.findItemsOnText(text);
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search(text, ItemSearchSort.ID, 0, 10)).thenReturn(List.of(item.getId()));
+        when(itemRepository.findAllById(List.of(item.getId()))).thenReturn(List.of(item));
+        List<ItemDtoOut> itemList = (List<ItemDtoOut>) itemService.findItemsOnText(text, "id", false, 0, 10);
 
         assertEquals(itemList.get(0), ItemMapper.toItemDtoOut(item));
     }
 
+    @Test
+    void findByTextWhenNothingFoundShouldNotQueryRepository() {
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search("desc", ItemSearchSort.ID, 0, 10)).thenReturn(Collections.emptyList());
+
+        assertEquals(0, itemService.findItemsOnText("desc", "id", false, 0, 10).size());
+        verify(itemRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void findByTextShouldKeepIndexOrder() {
+        Item otherItem = Item.builder()
+                .id(2L)
+                .name("description")
+                .description("other")
+                .available(true)
+                .owner(user)
+                .build();
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search("desc", ItemSearchSort.RELEVANCE, 0, 10)).thenReturn(List.of(2L, 1L));
+        when(itemRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(item, otherItem));
+
+        List<ItemDtoOut> itemList = (List<ItemDtoOut>) itemService.findItemsOnText("desc", "relevance", false, 0, 10);
+
+        assertEquals(List.of(2L, 1L), itemList.stream().map(ItemDtoOut::getId).toList());
+    }
+
+    @Test
+    void findByTextShouldUseDatabaseUntilIndexIsReady() {
+        when(itemSearchIndex.isReady()).thenReturn(false);
+        when(itemDatabaseSearch.search("desc", ItemSearchSort.ID, 0, 10)).thenReturn(List.of(item.getId()));
+        when(itemRepository.findAllById(List.of(item.getId()))).thenReturn(List.of(item));
+
+        List<ItemDtoOut> itemList = (List<ItemDtoOut>) itemService.findItemsOnText("desc", "id", false, 0, 10);
+
+        assertEquals(List.of(ItemMapper.toItemDtoOut(item)), itemList);
+        verify(itemSearchIndex, never()).search(anyString(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void findByTextShouldNotCacheDatabaseResultsUntilIndexIsReady() {
+        when(itemSearchIndex.isReady()).thenReturn(false, true);
+        when(itemDatabaseSearch.search("desc", ItemSearchSort.ID, 0, 10)).thenReturn(Collections.emptyList());
+        when(itemSearchIndex.search("desc", ItemSearchSort.ID, 0, 10)).thenReturn(List.of(item.getId()));
+        when(itemRepository.findAllById(List.of(item.getId()))).thenReturn(List.of(item));
+
+        assertEquals(0, itemService.findItemsOnText("desc", "id", false, 0, 10).size());
+        List<ItemDtoOut> itemList = (List<ItemDtoOut>) itemService.findItemsOnText("desc", "id", false, 0, 10);
+
+        assertEquals(List.of(ItemMapper.toItemDtoOut(item)), itemList);
+        assertEquals(1, itemSearchCache.size());
+    }
+
+    @Test
+    void findByTextWhenFuzzyShouldUseFuzzyIndexSearch() {
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.fuzzySearch("dseс", ItemSearchSort.ID, 0, 10)).thenReturn(List.of(item.getId()));
+        when(itemRepository.findAllById(List.of(item.getId()))).thenReturn(List.of(item));
+
+        List<ItemDtoOut> itemList = (List<ItemDtoOut>) itemService.findItemsOnText("dseс", "id", true, 0, 10);
+
+        assertEquals(List.of(ItemMapper.toItemDtoOut(item)), itemList);
+        verify(itemSearchIndex, never()).search(anyString(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void findByTextShouldCacheIds() {
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search("Desc", ItemSearchSort.ID, 0, 10)).thenReturn(List.of(item.getId()));
+        when(itemRepository.findAllById(List.of(item.getId()))).thenReturn(List.of(item));
+
+        itemService.findItemsOnText("Desc", "id", false, 0, 10);
+        List<ItemDtoOut> itemList = (List<ItemDtoOut>) itemService.findItemsOnText("desc", "id", false, 0, 10);
+
+        assertEquals(List.of(ItemMapper.toItemDtoOut(item)), itemList);
+        verify(itemSearchIndex, times(1)).search(anyString(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void streamByTextShouldWriteAllItemsInIndexOrder() {
+        Item other = Item.builder()
+                .id(2L)
+                .name("other")
+                .description("other desc")
+                .available(true)
+                .build();
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search("desc", ItemSearchSort.RELEVANCE, 0, Integer.MAX_VALUE))
+                .thenReturn(List.of(2L, 1L));
+        when(itemRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(item, other));
+        List<ItemDtoOut> itemList = new ArrayList<>();
+
+        itemService.streamItemsOnText("desc", "relevance", false, itemList::add);
+
+        assertEquals(List.of(2L, 1L), itemList.stream().map(ItemDtoOut::getId).toList());
+        verify(entityManager).clear();
+    }
+
+    @Test
+    void findItemsWithFacetsShouldCountInIndex() {
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search(eq("desc"), eq(ItemSearchSort.ID), eq(0), eq(1), any(ItemSearchFacetCounter.class)))
+                .thenAnswer(invocation -> {
+                    ItemSearchFacetCounter counter = invocation.getArgument(4);
+                    counter.add(1L, false, 1);
+                    counter.add(2L, true, 1);
+                    return List.of(item.getId());
+                });
+        when(itemRepository.findAllById(List.of(item.getId()))).thenReturn(List.of(item));
+
+        ItemSearchResultDto result = itemService.findItemsWithFacets("desc", "id", false, 0, 1);
+
+        assertEquals(List.of(item.getId()), result.getItems().stream().map(ItemDtoOut::getId).toList());
+        assertEquals(2L, result.getFacets().getTotal());
+        assertEquals(1L, result.getFacets().getWithRequest());
+        verify(itemRepository, never()).countFacets(anyString());
+    }
+
+    @Test
+    void findItemsWithFacetsBeforeIndexIsReadyShouldSumGroups() {
+        when(itemDatabaseSearch.search("desc", ItemSearchSort.ID, 0, 10)).thenReturn(List.of());
+        when(itemRepository.countFacets("desc")).thenReturn(List.of(
+                facetRow(1L, false, 3L),
+                facetRow(1L, true, 1L),
+                facetRow(2L, true, 5L),
+                facetRow(3L, false, 1L)));
+
+        ItemSearchFacetsDto facets = itemService.findItemsWithFacets("desc", "id", false, 0, 10).getFacets();
+
+        assertEquals(10L, facets.getTotal());
+        assertEquals(6L, facets.getWithRequest());
+        assertEquals(4L, facets.getWithoutRequest());
+        assertEquals(List.of(new ItemSearchFacetsDto.OwnerCount(2L, 5L), new ItemSearchFacetsDto.OwnerCount(1L, 4L),
+                new ItemSearchFacetsDto.OwnerCount(3L, 1L)), facets.getOwners());
+    }
+
+    @Test
+    void findItemsWithFacetsWhenTextIsBlankShouldNotQueryRepository() {
+        assertEquals(0L, itemService.findItemsWithFacets(" ", "id", false, 0, 10).getFacets().getTotal());
+        verifyNoInteractions(itemRepository);
+    }
+
+    private ItemSearchFacetView facetRow(Long ownerId, boolean hasRequest, long count) {
+        return new ItemSearchFacetView() {
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public Boolean getHasRequest() {
+                return hasRequest;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+
+    @Test
+    void findByTextWithUnknownSortShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> itemService.findItemsOnText("desc", "name", false, 0, 10));
+    }
+
+    @Test
+    void suggest() {
+        when(itemSuggestIndex.suggest("дре", 10)).thenReturn(List.of("дрель"));
+
+        assertEquals(List.of("дрель"), itemService.suggest("дре", 10));
+    }
+
+    @Test
+    void suggestWhenPrefixIsBlankShouldNotQueryIndex() {
+        assertEquals(List.of(), itemService.suggest(" ", 10));
+        verifyNoInteractions(itemSuggestIndex);
+    }
+
+    @Test
+    void findAvailabilityShouldMergeBookingsInsidePeriod() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(bookingRepository.findIntervalsByItemId(eq(item.getId()), anyCollection())).thenReturn(List.of(
+                new Interval(1L, item.getId(), from.minusDays(2), from.minusDays(1), BookingStatus.APPROVED),
+                new Interval(2L, item.getId(), from.plusDays(1), from.plusDays(3), BookingStatus.APPROVED),
+                new Interval(3L, item.getId(), from.plusDays(2), from.plusDays(4), BookingStatus.WAITING),
+                new Interval(4L, item.getId(), from.plusDays(5), from.plusDays(6), BookingStatus.APPROVED),
+                new Interval(5L, item.getId(), from.plusDays(20), from.plusDays(21), BookingStatus.APPROVED)));
+
+        assertEquals(List.of(new FreeIntervalDto(from, from.plusDays(1)),
+                        new FreeIntervalDto(from.plusDays(3), from.plusDays(5)),
+                        new FreeIntervalDto(from.plusDays(6), from.plusDays(10))),
+                itemService.findAvailability(item.getId(), from, from.plusDays(10), false));
+        assertEquals(List.of(new FreeIntervalDto(from, from.plusDays(1)),
+                        new FreeIntervalDto(from.plusDays(4), from.plusDays(5))),
+                itemService.findAvailability(item.getId(), from, from.plusDays(5).plusHours(1), true));
+        verify(bookingRepository, times(1)).findIntervalsByItemId(eq(item.getId()), anyCollection());
+    }
+
+    @Test
+    void findAvailabilityWhenPeriodIsFullyBooked() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(bookingRepository.findIntervalsByItemId(eq(item.getId()), anyCollection())).thenReturn(List.of(
+                new Interval(1L, item.getId(), from.minusDays(1), from.plusDays(2), BookingStatus.APPROVED)));
+
+        assertEquals(List.of(), itemService.findAvailability(item.getId(), from, from.plusDays(2), false));
+    }
+
+    @Test
+    void findAvailabilityWhenPeriodIsNotValid() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        assertThrows(ValidationException.class,
+                () -> itemService.findAvailability(item.getId(), from, from, false));
+        verifyNoInteractions(itemRepository);
+    }
+
     @Test
     void createComment_whenItemIdIsNotValid_thenThrowObjectNotFoundException() {
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.empty());
+        when(itemRepository.findForUpdateById(item.getId())).thenReturn(Optional.empty());
 
         NotFoundException itemNotFoundException = assertThrows(NotFoundException.class,
                 () -> itemService.createComment(user.getId(), CommentMapper.toCommentDto(comment), item.getId()));
@@ -254,7 +589,7 @@ class ItemServiceImplTest {
     @Test
     void createCommentWhenUserHaveNotAnyBookingsShouldThrowValidationException() {
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(itemRepository.findForUpdateById(item.getId())).thenReturn(Optional.of(item));
         when(bookingRepository.findByBookerIdAndItemIdAndEndBefore(anyLong(), anyLong(), any(LocalDateTime.class)))
                 .thenReturn(Collections.emptyList());
 
@@ -264,4 +599,32 @@ class ItemServiceImplTest {
         assertEquals(userBookingsNotFoundException.getMessage(), "У пользователя с id = " + user.getId() + " должно быть хотя бы одно бронирование предмета с id = " + item.getId());
 
     }
-}
\ No newline at end of file
+
+    private ItemOwnerView ownerView() {
+        return new OwnerView(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getCommentCount());
+    }
+
+    private ItemBookingView bookingView(Booking booking) {
+        return new BookingView(booking.getItem().getId(), booking.getId(), booking.getStart(), booking.getEnd(),
+                booking.getStatus(), booking.getBooker().getId(), booking.getBooker().getName(),
+                booking.getBooker().getEmail());
+    }
+
+    private record OwnerView(Long getId, String getName, String getDescription, Boolean getAvailable,
+                             Long getCommentCount) implements ItemOwnerView {
+    }
+
+    private record BookingView(Long getItemId, Long getId, LocalDateTime getStart, LocalDateTime getEnd,
+                               BookingStatus getStatus, Long getBookerId, String getBookerName,
+                               String getBookerEmail) implements ItemBookingView {
+    }
+
+    private record CommentView(Long getId, String getText, String getAuthorName, LocalDateTime getCreated,
+                               Long getItemId) implements ItemCommentView {
+    }
+
+    private record Interval(Long getId, Long getItemId, LocalDateTime getStart, LocalDateTime getEnd,
+                            BookingStatus getStatus) implements BookingIntervalView {
+    }
+}
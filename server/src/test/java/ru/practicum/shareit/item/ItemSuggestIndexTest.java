@@ -0,0 +1,92 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemSuggestIndexTest {
+
+    private ItemSuggestIndex index;
+
+    @BeforeEach
+    void init() {
+        index = new ItemSuggestIndex();
+        index.put(1L, "Дрель");
+        index.put(2L, "Дрель ударная");
+        index.put(3L, "Дрель-шуруповерт");
+        index.put(4L, "Домкрат");
+        index.put(5L, "Шуруповерт");
+    }
+
+    @Test
+    void suggestShouldOrderByFrequency() {
+        assertEquals(List.of("дрель", "домкрат"), index.suggest("Д", 10));
+        assertEquals(List.of("шуруповерт"), index.suggest("шур", 10));
+    }
+
+    @Test
+    void suggestShouldLimitSize() {
+        assertEquals(List.of("дрель"), index.suggest("д", 1));
+    }
+
+    @Test
+    void suggestShouldCompleteLastWord() {
+        assertEquals(List.of("дрель ударная"), index.suggest("Дрель уд", 10));
+        assertEquals(List.of(), index.suggest("дрель ", 10));
+        assertEquals(List.of(), index.suggest("пила", 10));
+    }
+
+    @Test
+    void updateShouldReplaceWordsOfItem() {
+        index.put(4L, "Пила");
+
+        assertEquals(List.of("дрель"), index.suggest("д", 10));
+        assertEquals(List.of("пила"), index.suggest("п", 10));
+    }
+
+    @Test
+    void loadShouldNotRestoreItemChangedDuringLoad() {
+        index.startLoad();
+        index.remove(4L);
+
+        index.load(4L, "Домкрат");
+        index.load(6L, "Домофон");
+        index.finishLoad();
+
+        assertEquals(List.of("дрель", "домофон"), index.suggest("д", 10));
+    }
+
+    @Test
+    void unavailableItemShouldBeRemoved() {
+        Item item = Item.builder()
+                .id(5L)
+                .name("Шуруповерт")
+                .available(false)
+                .build();
+
+        index.index(item);
+
+        assertEquals(List.of("шуруповерт"), index.suggest("шур", 10));
+        index.remove(3L);
+        assertEquals(List.of(), index.suggest("шур", 10));
+    }
+
+    @Test
+    void suggestShouldKeepTopSizeWords() {
+        for (long id = 10; id < 30; id++) {
+            for (long copy = 0; copy < id; copy++) {
+                index.put(id * 100 + copy, "ключ" + id);
+            }
+        }
+
+        List<String> expected = List.of("ключ29", "ключ28", "ключ27", "ключ26", "ключ25",
+                "ключ24", "ключ23", "ключ22", "ключ21", "ключ20");
+        assertEquals(expected, index.suggest("кл", 10));
+        assertEquals(List.of("ключ15"), index.suggest("ключ15", 10));
+    }
+}
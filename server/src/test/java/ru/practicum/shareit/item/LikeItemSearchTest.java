@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.item.search.LikeItemSearch;
+
+@DataJpaTest
+@Import(LikeItemSearch.class)
+class LikeItemSearchTest extends AbstractItemDatabaseSearchTest {
+}
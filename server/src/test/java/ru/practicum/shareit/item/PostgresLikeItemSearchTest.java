@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.item.search.LikeItemSearch;
+
+// Тот же поиск на PostgreSQL с триграммными индексами. Требует запущенный PostgreSQL, например:
+// mvn test -pl server -Dtest=PostgresLikeItemSearchTest -Dshareit.test.postgres.url=jdbc:postgresql://localhost:5432/shareit
+@DataJpaTest
+@ActiveProfiles({"test", "postgres"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql("/schema-postgresql.sql")
+@Import(LikeItemSearch.class)
+@EnabledIfSystemProperty(named = "shareit.test.postgres.url", matches = ".+")
+class PostgresLikeItemSearchTest extends AbstractItemDatabaseSearchTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("shareit.test.postgres.url"));
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.username", () -> System.getProperty("shareit.test.postgres.user", "dbuser"));
+        registry.add("spring.datasource.password", () -> System.getProperty("shareit.test.postgres.password", "12345"));
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+}
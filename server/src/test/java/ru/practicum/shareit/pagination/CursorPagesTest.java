@@ -0,0 +1,32 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CursorPagesTest {
+    private static final LocalDateTime TIME = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    @Test
+    void fullPageShouldReturnCursorOfLastRow() {
+        ResponseEntity<List<Long>> response = CursorPages.withNextCursor(List.of(3L, 2L), 2,
+                id -> new KeysetCursor(TIME, id));
+
+        assertEquals(List.of(3L, 2L), response.getBody());
+        assertEquals(new KeysetCursor(TIME, 2L).encode(),
+                response.getHeaders().getFirst(CursorPages.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void lastPageShouldNotReturnCursor() {
+        assertNull(CursorPages.withNextCursor(List.of(3L), 2, id -> new KeysetCursor(TIME, id))
+                .getHeaders().getFirst(CursorPages.NEXT_CURSOR_HEADER));
+        assertNull(CursorPages.withNextCursor(List.<Long>of(), 2, id -> new KeysetCursor(TIME, id))
+                .getHeaders().getFirst(CursorPages.NEXT_CURSOR_HEADER));
+    }
+}
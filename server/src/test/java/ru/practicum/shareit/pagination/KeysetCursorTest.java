@@ -0,0 +1,31 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+    @Test
+    void decodeShouldRestoreEncodedCursor() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2030, 1, 1, 10, 0, 0, 123_456_000), 42L);
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void decodeShouldReturnNullForFirstPage() {
+        assertNull(KeysetCursor.decode(""));
+    }
+
+    @Test
+    void decodeWhenTokenIsNotValid() {
+        assertThrows(ValidationException.class, () -> KeysetCursor.decode("not-a-cursor"));
+        assertThrows(ValidationException.class, () -> KeysetCursor.decode("MjAzMC0wMS0wMVQxMDowMA"));
+    }
+}
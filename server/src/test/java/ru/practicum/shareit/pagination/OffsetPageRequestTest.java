@@ -0,0 +1,29 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffsetPageRequestTest {
+
+    @Test
+    void offsetShouldNotBeRoundedToPageSize() {
+        OffsetPageRequest page = OffsetPageRequest.of(5, 2);
+
+        assertEquals(5, page.getOffset());
+        assertEquals(2, page.getPageSize());
+        assertEquals(7, page.next().getOffset());
+        assertEquals(3, page.previousOrFirst().getOffset());
+        assertTrue(page.hasPrevious());
+        assertFalse(page.first().hasPrevious());
+    }
+
+    @Test
+    void ofWhenArgumentsAreNotValid() {
+        assertThrows(IllegalArgumentException.class, () -> OffsetPageRequest.of(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> OffsetPageRequest.of(0, 0));
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.User;
@@ -19,6 +21,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemRequestController.class)
@@ -100,6 +103,64 @@ class ItemRequestControllerTest {
         assertEquals(objectMapper.writeValueAsString(List.of(requestDto)), result);
     }
 
+    @Test
+    @SneakyThrows
+    void getAllRequestsAfterCursorShouldReturnNextCursor() {
+        KeysetCursor after = new KeysetCursor(LocalDateTime.of(2030, 1, 1, 10, 0), 7L);
+        when(requestService.getAllRequests(user.getId(), after, 1)).thenReturn(List.of(requestDto));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/requests/all")
+                        .param("after", after.encode())
+                        .param("size", "1")
+                        .header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", new KeysetCursor(requestDto.getCreated(), requestDto.getId()).encode()));
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllRequestsFirstCursorPageWithoutNextCursor() {
+        when(requestService.getAllRequests(user.getId(), (KeysetCursor) null, 10)).thenReturn(List.of(requestDto));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/requests/all")
+                        .param("after", "")
+                        .header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @SneakyThrows
+    void getMatches() {
+        ItemDtoOut item = ItemDtoOut.builder().id(2L).name("Дрель").description("Простая дрель").available(true).build();
+        when(requestService.getMatches(user.getId(), 1L)).thenReturn(List.of(item));
+
+        String result = mockMvc.perform(MockMvcRequestBuilders.get("/requests/{requestId}/matches", 1L)
+                        .header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(List.of(item)), result);
+    }
+
+    @Test
+    @SneakyThrows
+    void getFeed() {
+        when(requestService.getFeed(user.getId(), 5)).thenReturn(List.of(requestDto));
+
+        String result = mockMvc.perform(MockMvcRequestBuilders.get("/requests/feed")
+                        .header("X-Sharer-User-Id", user.getId())
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(List.of(requestDto)), result);
+    }
+
     @Test
     @SneakyThrows
     void get() {
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemRequestFeedTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private ItemRequestFeed feed;
+
+    @BeforeEach
+    void init() {
+        feed = new ItemRequestFeed(2, 10);
+        feed.putItem(1L, 10L, "Дрель", "Аккумуляторная дрель");
+        feed.putItem(2L, 20L, "Пила", "Ручная пила");
+    }
+
+    @Test
+    void addRequestShouldReachMatchingOwnersExceptRequester() {
+        feed.addRequest(1L, 30L, "Нужна дрель", NOW);
+        feed.addRequest(2L, 10L, "Нужна пила или дрель", NOW.plusMinutes(1));
+
+        assertEquals(List.of(1L), ids(10L));
+        assertEquals(List.of(2L), ids(20L));
+        assertEquals(List.of(), ids(30L));
+    }
+
+    @Test
+    void putItemShouldPullRecentRequests() {
+        feed.addRequest(1L, 30L, "Нужна отвертка", NOW);
+        feed.addRequest(2L, 30L, "Нужен молоток", NOW.plusMinutes(1));
+
+        feed.putItem(3L, 20L, "Отвертка", "Крестовая отвертка");
+
+        assertEquals(List.of(1L), ids(20L));
+    }
+
+    @Test
+    void feedShouldKeepNewestRequestsUpToCapacity() {
+        feed.addRequest(1L, 30L, "Нужна дрель", NOW);
+        feed.addRequest(2L, 30L, "Нужна дрель", NOW.plusMinutes(2));
+        feed.addRequest(3L, 30L, "Нужна дрель", NOW.plusMinutes(1));
+        feed.addRequest(4L, 30L, "Нужна дрель", NOW.minusMinutes(1));
+
+        assertEquals(List.of(2L, 3L), ids(10L));
+        assertEquals(List.of(2L), feed.get(10L, 1).stream().map(ItemRequestFeed.Entry::id).toList());
+    }
+
+    @Test
+    void requestMatchedByAnotherItemShouldNotRepeat() {
+        feed.addRequest(1L, 30L, "Нужна дрель и отвертка", NOW);
+
+        feed.putItem(3L, 10L, "Отвертка", "Крестовая отвертка");
+
+        assertEquals(List.of(1L), ids(10L));
+    }
+
+    @Test
+    void getShouldSkipRequestsNoLongerMatchingOwnerItems() {
+        feed.addRequest(1L, 30L, "Нужна дрель", NOW);
+
+        feed.putItem(1L, 10L, "Молоток", "Тяжелый молоток");
+
+        assertEquals(List.of(), ids(10L));
+    }
+
+    @Test
+    void loadShouldNotRepeatChangesMadeDuringLoad() {
+        feed.startLoad();
+        feed.putItem(1L, 10L, "Молоток", "Тяжелый молоток");
+        feed.addRequest(1L, 30L, "Нужен молоток", NOW);
+
+        feed.loadItem(1L, 10L, "Дрель", "Аккумуляторная дрель");
+        feed.loadRequest(1L, 30L, "Нужен молоток", NOW);
+        feed.loadRequest(2L, 30L, "Нужна дрель", NOW.minusMinutes(1));
+        feed.finishLoad();
+
+        assertEquals(List.of(1L), ids(10L));
+    }
+
+    private List<Long> ids(Long ownerId) {
+        return feed.get(ownerId, 10).stream().map(ItemRequestFeed.Entry::id).toList();
+    }
+}
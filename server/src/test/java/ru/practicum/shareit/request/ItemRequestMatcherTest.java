@@ -0,0 +1,97 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.match.ItemRequestMatcher;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ItemRequestMatcherTest {
+    private static final Long OWNER_ID = 10L;
+    private static final String DESCRIPTION = "Нужна аккумуляторная дрель";
+
+    private ItemSearchIndex index;
+    private ItemRequestMatcher matcher;
+
+    @BeforeEach
+    void init() {
+        index = spy(new ItemSearchIndex());
+        index.put(1L, OWNER_ID, false, "Дрель", "Простая дрель");
+        index.put(2L, OWNER_ID, false, "Отвертка", "Аккумуляторная отвертка");
+        index.put(3L, OWNER_ID, false, "Дрель аккумуляторная", "Аккумуляторная дрель-шуруповерт");
+        matcher = new ItemRequestMatcher(index, 1, 10, 10, Duration.ofSeconds(5), 100, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void shutdown() {
+        matcher.shutdown();
+    }
+
+    @Test
+    void getShouldRankItemsAndCacheResult() {
+        index.markReady();
+
+        assertEquals(List.of(3L, 1L, 2L), matcher.get(1L, DESCRIPTION));
+        assertEquals(List.of(3L, 1L, 2L), matcher.get(1L, DESCRIPTION));
+        verify(index, times(1)).match(DESCRIPTION, 10);
+    }
+
+    @Test
+    void submitShouldMatchOffCallerThread() {
+        index.markReady();
+
+        matcher.submit(1L, DESCRIPTION);
+
+        verify(index, timeout(5_000)).match(DESCRIPTION, 10);
+        assertEquals(List.of(3L, 1L, 2L), matcher.get(1L, DESCRIPTION));
+    }
+
+    @Test
+    void itemChangeShouldDropMatchesSharingItsWords() {
+        index.markReady();
+        matcher.get(1L, DESCRIPTION);
+        matcher.get(2L, "Нужна пила");
+
+        index.put(4L, OWNER_ID, false, "Дрель ударная", "");
+        matcher.invalidate(null, snapshot("Дрель ударная"));
+
+        assertTrue(matcher.get(1L, DESCRIPTION).contains(4L));
+        assertEquals(List.of(), matcher.get(2L, "Нужна пила"));
+        verify(index, times(2)).match(DESCRIPTION, 10);
+        verify(index, times(1)).match("Нужна пила", 10);
+    }
+
+    @Test
+    void invalidateAllShouldDropEveryMatch() {
+        index.markReady();
+        matcher.get(1L, DESCRIPTION);
+
+        matcher.invalidateAll();
+        matcher.get(1L, DESCRIPTION);
+
+        verify(index, times(2)).match(DESCRIPTION, 10);
+    }
+
+    @Test
+    void getShouldNotCacheUntilIndexIsLoaded() {
+        matcher.get(1L, DESCRIPTION);
+        matcher.get(1L, DESCRIPTION);
+
+        verify(index, times(2)).match(DESCRIPTION, 10);
+    }
+
+    private static ItemSearchCache.Snapshot snapshot(String name) {
+        return new ItemSearchCache.Snapshot(name.toLowerCase(), "", true);
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.item.model.Item;
@@ -77,9 +78,49 @@ class ItemRequestRepositoryTest {
 
     @Test
     void findAllRequest() {
-        Sort sort = Sort.by(Sort.Direction.DESC, "created");
-        List<ItemRequest> requests = requestRepository.findAllByRequesterIdIsNot(1L, sort);
+        List<ItemRequest> requests = requestRepository.findAllByRequesterIdIsNot(1L, 0, 10);
 
         assertEquals(requests.get(0).getDescription(), "request2 description");
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllRequestFromOffsetNotAlignedToPageSize() {
+        List<ItemRequest> saved = saveRequestsCreatedAt(LocalDateTime.of(2030, 1, 1, 10, 0));
+
+        List<ItemRequest> requests = requestRepository.findAllByRequesterIdIsNot(user1.getId(), 1, 2);
+
+        assertEquals(List.of(saved.get(1).getId(), saved.get(0).getId()),
+                requests.stream().map(ItemRequest::getId).toList());
+    }
+
+    @Test
+    void findPageAfterCursor() {
+        List<ItemRequest> saved = saveRequestsCreatedAt(LocalDateTime.of(2030, 1, 1, 10, 0));
+        ItemRequest first = saved.get(0);
+        ItemRequest second = saved.get(1);
+        ItemRequest third = saved.get(2);
+
+        List<ItemRequest> firstPage = requestRepository.findPageByRequesterIdIsNot(user1.getId(), null, null,
+                Limit.of(2));
+        List<ItemRequest> secondPage = requestRepository.findPageByRequesterIdIsNot(user1.getId(),
+                firstPage.get(1).getCreated(), firstPage.get(1).getId(), Limit.of(2));
+
+        assertEquals(List.of(third.getId(), second.getId()), firstPage.stream().map(ItemRequest::getId).toList());
+        assertEquals(List.of(first.getId(), request2.getId()), secondPage.stream().map(ItemRequest::getId).toList());
+    }
+
+    // Одинаковое время создания, порядок внутри него задаёт id
+    private List<ItemRequest> saveRequestsCreatedAt(LocalDateTime created) {
+        List<ItemRequest> requests = List.of("first", "second", "third").stream()
+                .map(description -> requestRepository.save(ItemRequest.builder()
+                        .description(description)
+                        .requester(user2)
+                        .build()))
+                .toList();
+        for (ItemRequest request : requests) {
+            request.setCreated(created);
+        }
+        testEntityManager.flush();
+        return requests;
+    }
+}
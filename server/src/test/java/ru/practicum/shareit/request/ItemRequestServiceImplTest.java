@@ -5,25 +5,35 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
+import ru.practicum.shareit.request.match.ItemRequestMatcher;
 import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,9 +42,18 @@ class ItemRequestServiceImplTest {
     @Mock
     private ItemRequestRepository requestRepository;
 
+    @Mock
+    private ItemRepository itemRepository;
+
     @Mock
     private UserService userService;
 
+    @Mock
+    private ItemRequestMatcher requestMatcher;
+
+    @Mock
+    private ItemRequestFeed requestFeed;
+
     @InjectMocks
     private ItemRequestServiceImpl requestService;
 
@@ -74,36 +93,118 @@ class ItemRequestServiceImplTest {
         ItemRequestDtoOut actualRequestDto = requestService.add(user.getId(), requestDto);
 
         assertEquals(expectedRequestDto, actualRequestDto);
+        verify(requestMatcher).submit(request.getId(), request.getDescription());
+        verify(requestFeed).addRequest(request.getId(), user.getId(), request.getDescription(), request.getCreated());
+    }
+
+    @Test
+    void getFeedShouldLoadItemsOfFeedRequests() {
+        LocalDateTime created = LocalDateTime.now();
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(requestFeed.get(user.getId(), 10)).thenReturn(List.of(
+                new ItemRequestFeed.Entry(1L, 2L, "request description", created, Set.of("request"))));
+        item.setRequest(request);
+        when(itemRepository.findAllByRequestIdIn(List.of(1L))).thenReturn(List.of(item));
+
+        List<ItemRequestDtoOut> feed = requestService.getFeed(user.getId(), 10);
+
+        assertEquals(1, feed.size());
+        assertEquals("request description", feed.getFirst().getDescription());
+        assertEquals(created, feed.getFirst().getCreated());
+        assertEquals(1, feed.getFirst().getItems().size());
+    }
+
+    @Test
+    void getFeedWhenUserIsNotFound() {
+        when(userService.existsById(user.getId())).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> requestService.getFeed(user.getId(), 10));
+        verifyNoInteractions(requestFeed);
+    }
+
+    @Test
+    void getMatchesShouldSkipRequesterAndUnavailableItems() {
+        User requester = User.builder().id(2L).name("requester").email("requester@email.com").build();
+        Item own = Item.builder().id(2L).name("own").description("description").available(true)
+                .owner(requester).build();
+        Item unavailable = Item.builder().id(3L).name("unavailable").description("description").available(false)
+                .owner(user).build();
+        request.setRequester(requester);
+        when(userService.existsById(requester.getId())).thenReturn(true);
+        when(requestRepository.findById(request.getId())).thenReturn(Optional.of(request));
+        when(requestMatcher.get(request.getId(), request.getDescription())).thenReturn(List.of(3L, 2L, 1L, 4L));
+        when(itemRepository.findAllById(List.of(3L, 2L, 1L, 4L))).thenReturn(List.of(item, own, unavailable));
+
+        List<ItemDtoOut> matches = requestService.getMatches(requester.getId(), request.getId());
+
+        assertEquals(List.of(ItemMapper.toItemDtoOut(item)), matches);
+    }
+
+    @Test
+    void getMatchesWhenRequestIdIsNotValid() {
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(requestRepository.findById(request.getId())).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> requestService.getMatches(user.getId(), request.getId()));
+        verifyNoInteractions(requestMatcher);
     }
 
     @Test
     void getUserRequests() {
         List<ItemRequestDtoOut> expectedRequestsDto = List.of(ItemRequestMapper.toRequestDtoOut(request));
         Sort sort = Sort.by(Sort.Direction.DESC, "created");
-        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(userService.existsById(user.getId())).thenReturn(true);
         when(requestRepository.findAllByRequesterId(userDto.getId(), sort)).thenReturn(List.of(request));
+        item.setRequest(request);
+        when(itemRepository.findAllByRequestIdIn(List.of(request.getId()))).thenReturn(List.of(item));
 
         List<ItemRequestDtoOut> actualRequestsDto = requestService.getUserRequests(userDto.getId());
 
         assertEquals(expectedRequestsDto, actualRequestsDto);
     }
 
+    @Test
+    void getUserRequestsWithoutRequestsShouldNotQueryItems() {
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(requestRepository.findAllByRequesterId(anyLong(), any(Sort.class))).thenReturn(List.of());
+
+        List<ItemRequestDtoOut> actualRequestsDto = requestService.getUserRequests(userDto.getId());
+
+        assertEquals(List.of(), actualRequestsDto);
+        verifyNoInteractions(itemRepository);
+    }
+
     @Test
     void getAllRequests() {
         List<ItemRequestDtoOut> expectedRequestsDto = List.of(ItemRequestMapper.toRequestDtoOut(request));
-        Sort sort = Sort.by(Sort.Direction.DESC, "created");
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(requestRepository.findAllByRequesterIdIsNot(anyLong(), eq(sort))).thenReturn(List.of(request));
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(requestRepository.findAllByRequesterIdIsNot(user.getId(), 25, 10)).thenReturn(List.of(request));
+        item.setRequest(request);
+        when(itemRepository.findAllByRequestIdIn(List.of(request.getId()))).thenReturn(List.of(item));
 
-        List<ItemRequestDtoOut> actualRequestsDto = requestService.getAllRequests(userDto.getId(), 0, 10);
+        List<ItemRequestDtoOut> actualRequestsDto = requestService.getAllRequests(userDto.getId(), 25, 10);
 
         assertEquals(expectedRequestsDto, actualRequestsDto);
     }
 
+    @Test
+    void getAllRequestsAfterCursor() {
+        KeysetCursor after = new KeysetCursor(LocalDateTime.of(2030, 1, 1, 10, 0), 7L);
+        when(userService.existsById(user.getId())).thenReturn(true);
+        when(requestRepository.findPageByRequesterIdIsNot(userDto.getId(), after.time(), after.id(), Limit.of(10)))
+                .thenReturn(List.of(request));
+        item.setRequest(request);
+        when(itemRepository.findAllByRequestIdIn(List.of(request.getId()))).thenReturn(List.of(item));
+
+        List<ItemRequestDtoOut> actualRequestsDto = requestService.getAllRequests(userDto.getId(), after, 10);
+
+        assertEquals(List.of(ItemRequestMapper.toRequestDtoOut(request)), actualRequestsDto);
+    }
+
     @Test
     void getRequestById() {
         ItemRequestDtoOut expectedRequestDto = ItemRequestMapper.toRequestDtoOut(request);
-        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(userService.existsById(user.getId())).thenReturn(true);
         when(requestRepository.findById(request.getId())).thenReturn(Optional.of(request));
 
         ItemRequestDtoOut actualRequestDto = requestService.getRequestById(userDto.getId(), request.getId());
@@ -113,7 +214,7 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getRequestByIdWhenRequestIdIsNotValid() {
-        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(userService.existsById(user.getId())).thenReturn(true);
         when(requestRepository.findById(request.getId())).thenReturn(Optional.empty());
 
         NotFoundException requestNotFoundException = assertThrows(NotFoundException.class,
@@ -1,15 +1,23 @@
 package ru.practicum.shareit.user;
 
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemIndexUpdater;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
+import ru.practicum.shareit.user.service.UserCache;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -23,6 +31,18 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemIndexUpdater itemIndexUpdater;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManagerFactory entityManagerFactory;
+
+    @Spy
+    private UserCache userCache = new UserCache(1_000, Duration.ofMinutes(10));
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -101,8 +121,69 @@ class UserServiceImplTest {
     void deleteUser() {
         long userId = 0L;
         when(userRepository.findById(userId)).thenReturn(Optional.ofNullable(UserMapper.toUser(userDto)));
+        when(itemRepository.findIdsByOwnerId(userId)).thenReturn(List.of(3L, 4L));
         userService.delete(userId);
         verify(userRepository, times(1)).deleteById(userId);
+        verify(itemIndexUpdater).removeAll(List.of(3L, 4L));
     }
-}
 
+    @Test
+    void findByIdShouldReadRepositoryOnce() {
+        when(userRepository.findById(userDto.getId())).thenReturn(Optional.of(UserMapper.toUser(userDto)));
+
+        userService.findById(userDto.getId());
+        UserDto actualUserDto = userService.findById(userDto.getId());
+
+        assertEquals(userDto, actualUserDto);
+        verify(userRepository, times(1)).findById(userDto.getId());
+    }
+
+    @Test
+    void findByIdShouldNotShareCachedInstance() {
+        when(userRepository.findById(userDto.getId())).thenReturn(Optional.of(UserMapper.toUser(userDto)));
+
+        userService.findById(userDto.getId()).setName("changed");
+
+        assertEquals("name", userService.findById(userDto.getId()).getName());
+    }
+
+    @Test
+    void updateShouldInvalidateCachedUser() {
+        when(userRepository.findById(userDto.getId())).thenReturn(Optional.of(UserMapper.toUser(userDto)));
+        userService.findById(userDto.getId());
+
+        userService.update(userDto.getId(), UserDto.builder().name("update").build());
+        userService.findById(userDto.getId());
+
+        verify(userCache, times(1)).invalidate(userDto.getId());
+        verify(userRepository, times(3)).findById(userDto.getId());
+    }
+
+    @Test
+    void deleteShouldInvalidateCachedUser() {
+        when(userRepository.findById(userDto.getId())).thenReturn(Optional.of(UserMapper.toUser(userDto)));
+        userService.findById(userDto.getId());
+
+        userService.delete(userDto.getId());
+
+        assertFalse(userCache.contains(userDto.getId()));
+        verify(entityManagerFactory.getCache()).evict(Item.class);
+    }
+
+    @Test
+    void existsByIdShouldNotLoadUser() {
+        when(userRepository.existsById(userDto.getId())).thenReturn(true);
+
+        assertTrue(userService.existsById(userDto.getId()));
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void existsByIdWhenUserIsCachedShouldNotQueryRepository() {
+        when(userRepository.findById(userDto.getId())).thenReturn(Optional.of(UserMapper.toUser(userDto)));
+        userService.findById(userDto.getId());
+
+        assertTrue(userService.existsById(userDto.getId()));
+        verify(userRepository, never()).existsById(anyLong());
+    }
+}